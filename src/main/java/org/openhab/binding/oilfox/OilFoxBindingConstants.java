@@ -55,6 +55,15 @@ public class OilFoxBindingConstants {
     public static final String CHANNEL_FILL_LEVEL_PERCENT = "fill-level-percent";
     public static final String CHANNEL_FILL_LEVEL_QUANTITY = "fill-level-quantity";
     public static final String CHANNEL_QUANTITY_UNIT = "quantity-unit";
+    public static final String CHANNEL_QUANTITY_ALERT = "quantity-alert";
+    public static final String CHANNEL_PERCENT_ALERT = "percent-alert";
+    public static final String CHANNEL_DAYS_REACH_ALERT = "days-reach-alert";
+    public static final String CHANNEL_REFILL_DUE = "refill-due";
+    public static final String CHANNEL_REFILL_PLAN = "refill-plan";
+
+    // List of all trigger channel events
+    public static final String EVENT_LOW = "LOW";
+    public static final String EVENT_NORMAL = "NORMAL";
 
     // List of all supported thing types
     public static final Set<ThingTypeUID> SUPPORTED_DEVICE_TYPES = Collections.singleton(THING_TYPE_OILFOX);
@@ -14,32 +14,72 @@ package org.openhab.binding.oilfox.handler;
 
 import static java.time.temporal.ChronoUnit.MINUTES;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.InterruptedIOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
 import java.net.MalformedURLException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-
-import javax.net.ssl.HttpsURLConnection;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
 import org.openhab.binding.oilfox.internal.OilFoxBridgeConfiguration;
+import org.openhab.binding.oilfox.internal.OilFoxDeviceStore;
+import org.openhab.binding.oilfox.internal.OilFoxIOExecutor;
+import org.openhab.binding.oilfox.internal.OilFoxMqttRelay;
+import org.openhab.binding.oilfox.internal.OilFoxRefreshAllocator;
+import org.openhab.binding.oilfox.internal.OilFoxRefillPlanner;
+import org.openhab.binding.oilfox.internal.OilFoxRefreshDispatcher;
+import org.openhab.binding.oilfox.internal.OilFoxRequestBudget;
+import org.openhab.binding.oilfox.internal.OilFoxRequestLedger;
+import org.openhab.binding.oilfox.internal.OilFoxRequestLimitException;
+import org.openhab.binding.oilfox.internal.OilFoxServerClock;
+import org.openhab.binding.oilfox.internal.OilFoxSession;
+import org.openhab.binding.oilfox.internal.OilFoxSessionStore;
+import org.openhab.binding.oilfox.internal.api.OilFoxAdaptiveTransport;
+import org.openhab.binding.oilfox.internal.api.OilFoxHttpsTransport;
+import org.openhab.binding.oilfox.internal.api.OilFoxPayloadBuffer;
+import org.openhab.binding.oilfox.internal.api.OilFoxRecordingTransport;
+import org.openhab.binding.oilfox.internal.api.OilFoxReplayTransport;
+import org.openhab.binding.oilfox.internal.api.OilFoxRequest;
+import org.openhab.binding.oilfox.internal.api.OilFoxResponse;
+import org.openhab.binding.oilfox.internal.api.OilFoxTransport;
+import org.openhab.binding.oilfox.internal.jfr.OilFoxDecodeEvent;
+import org.openhab.binding.oilfox.internal.jfr.OilFoxDispatchEvent;
+import org.openhab.binding.oilfox.internal.jfr.OilFoxFlightRecorder;
+import org.openhab.binding.oilfox.internal.jfr.OilFoxHttpEvent;
+import org.openhab.binding.oilfox.internal.jfr.OilFoxLoginEvent;
+import org.openhab.binding.oilfox.internal.jfr.OilFoxParseEvent;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.storage.Storage;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.ChannelUID;
 import org.openhab.core.thing.ThingStatus;
 import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.ThingUID;
 import org.openhab.core.thing.binding.BaseBridgeHandler;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.RefreshType;
@@ -50,6 +90,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 
 /**
@@ -62,58 +103,216 @@ import com.google.gson.JsonParser;
 @NonNullByDefault
 public class OilFoxBridgeHandler extends BaseBridgeHandler {
 
+    private static final long DISCOVERY_TIMEOUT = 30; // seconds
+    private static final int PAYLOAD_BUFFER_SIZE = 20;
+    private static final String DEVICE_PATH = "/customer-api/v1/device";
+    private static final int REQUEST_LIMIT = 12; // requests per hour to login and token endpoints
+    private static final long SHUTDOWN_DEADLINE = 2000; // milliseconds to wait for running tasks on dispose
+    private static final long REFILL_SUMMARY_DELAY = 2; // seconds to collect the device updates of a refresh
+    private static final long GRANT_WINDOW = 30; // seconds to collect the refresh requests, if the budget is tight
+
     private final Logger logger = LoggerFactory.getLogger(OilFoxBridgeHandler.class);
 
-    private OilFoxBridgeConfiguration config = getConfigAs(OilFoxBridgeConfiguration.class);
-    private @Nullable ScheduledFuture<?> refreshJob;
-    private List<OilFoxStatusListener> oilFoxStatusListeners = new CopyOnWriteArrayList<>();
-    private @Nullable String accessToken = null;
-    private LocalDateTime accessTokenTime = LocalDateTime.now();
-    private LocalDateTime lastDeviceRefresh = LocalDateTime.now();
-    private @Nullable String refreshToken = null;
+    // all state is replaced as a whole, readers use a consistent snapshot without locking
+    private volatile OilFoxBridgeConfiguration config = getConfigAs(OilFoxBridgeConfiguration.class);
+    private volatile @Nullable ScheduledFuture<?> refreshJob;
+    private volatile OilFoxTransport transport = new OilFoxHttpsTransport(String.valueOf(config.address));
+    private volatile OilFoxIOExecutor ioExecutor = createIOExecutor();
+    private volatile OilFoxRefreshDispatcher dispatcher = createDispatcher();
+    private final CopyOnWriteArrayList<OilFoxStatusListener> oilFoxStatusListeners = new CopyOnWriteArrayList<>();
+    private final AtomicReference<OilFoxSession> session = new AtomicReference<>(OilFoxSession.NONE);
+    private volatile OilFoxRequestBudget refreshBudget = createRefreshBudget();
+    private final OilFoxServerClock serverClock = new OilFoxServerClock();
+    private volatile @Nullable OilFoxRequestLedger requestLedger; // null when replaying
+    private volatile boolean disposed = false; // checked by running refreshes, which are aborted on dispose
+    // incremented on initialize and dispose, a refresh of an earlier cycle still running after the dispose deadline
+    // does not dispatch to the listeners of the current one
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicReference<@Nullable CompletableFuture<@Nullable Void>> runningRefresh = new AtomicReference<>();
+    private volatile @Nullable String lastResponse = null; // raw device list, used by console
+    private final OilFoxDeviceStore deviceStore = new OilFoxDeviceStore(); // last values of all devices
+    private volatile Instant deviceListTime = Instant.EPOCH; // last device list request, used by discovery
+    private volatile long lastLatency = -1; // milliseconds
+    private volatile OilFoxPayloadBuffer payloadBuffer = createPayloadBuffer();
+    private final OilFoxRefillPlanner refillPlanner; // shared by all accounts
+    private final AtomicBoolean refillSummaryPending = new AtomicBoolean();
+    private final Set<String> refreshRequests = ConcurrentHashMap.newKeySet(); // waiting hwids
+    private final AtomicBoolean grantPending = new AtomicBoolean();
+    private volatile @Nullable OilFoxMqttRelay mqttRelay; // null if no MQTT broker is configured
+    private final Storage<String> sessionStorage; // encrypted refresh tokens of all accounts
+    private volatile @Nullable OilFoxSessionStore sessionStore; // null when replaying
+    private final AtomicBoolean resumePending = new AtomicBoolean(); // stored session not loaded yet
+    private volatile long loginLatency = -1; // milliseconds
+    private volatile String loginMethod = "none";
 
-    public OilFoxBridgeHandler(Bridge bridge) {
+    public OilFoxBridgeHandler(Bridge bridge, OilFoxRefillPlanner refillPlanner, Storage<String> sessionStorage) {
         super(bridge);
+        this.refillPlanner = refillPlanner;
+        this.sessionStorage = sessionStorage;
         String bridgeUID = this.getThing().getUID().toString();
         logger.debug("OilFoxBridgeHandler(): bridge UID {}: bridge thing created", bridgeUID);
     }
 
-    private void readStatus() {
-        synchronized (this) {
-            logger.debug("readStatus(): started");
-            if (!login()) { // login FoxInsights Customer API or refresh access token
-                logger.error("readStatus(): login failed");
-                return; // login failed
+    private void readStatus(int refreshGeneration) {
+        List<String> requests = List.copyOf(refreshRequests); // served by this refresh, if it succeeds
+        Map<String, JsonObject> devices = readDevices();
+        deviceListTime = Instant.now(); // also a failed or empty device list answers discovery scans for a while
+        if (devices == null || !isCurrent(refreshGeneration)) {
+            return;
+        }
+        refreshRequests.removeAll(requests);
+        OilFoxMqttRelay relay = mqttRelay; // prevent race condition
+        for (JsonObject device : devices.values()) {
+            int slot = deviceStore.update(device); // overwrite the values in place
+            if (relay != null) {
+                relay.publish(deviceStore.get(slot)); // only changed devices are sent
             }
-            logger.debug("readStatus(): login successful");
+        }
+        // devices removed from the account are no longer served, relayed, ranked or planned for a refill
+        String bridgeUID = this.getThing().getUID().getAsString();
+        for (String hwid : deviceStore.retain(devices.keySet())) {
+            logger.debug("readStatus(): hwid {}: removed from the device store", hwid);
+            if (relay != null) {
+                relay.remove(hwid);
+            }
+            refillPlanner.remove(bridgeUID, hwid);
+        }
+        dispatch(devices, refreshGeneration);
+        logger.debug("readStatus(): {}; {}", ioExecutor, dispatcher);
+    }
 
-            if (getThing().getStatus() != ThingStatus.ONLINE) {
-                return;
+    /**
+     * @return generation of the current initialization, see {@link #dispatch(Map, int)}
+     */
+    int getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @return true if the refresh belongs to the current initialization and the bridge is not disposed
+     */
+    private boolean isCurrent(int refreshGeneration) {
+        return !disposed && generation.get() == refreshGeneration;
+    }
+
+    /**
+     * Deliver each device to its status listener asynchronously.
+     *
+     * @param devices devices by hwid
+     */
+    public void dispatch(Map<String, JsonObject> devices) {
+        dispatch(devices, generation.get());
+    }
+
+    /**
+     * @param refreshGeneration generation of the initialization the devices were read in
+     */
+    void dispatch(Map<String, JsonObject> devices, int refreshGeneration) {
+        if (!isCurrent(refreshGeneration)) {
+            logger.debug("dispatch(): bridge disposed or initialized again, refresh result dropped");
+            return;
+        }
+        ThingUID bridgeUID = this.getThing().getUID();
+        for (OilFoxStatusListener oilFoxStatusListener : oilFoxStatusListeners) {
+            String hwid = oilFoxStatusListener.getHWID();
+            if (hwid == null) { // discovery service
+                continue;
             }
+            JsonObject device = devices.get(hwid);
+            if (device != null) {
+                dispatcher.dispatch(hwid, () -> {
+                    if (!isCurrent(refreshGeneration)) {
+                        return;
+                    }
+                    if (!OilFoxFlightRecorder.isAvailable()) {
+                        oilFoxStatusListener.onOilFoxRefresh(device);
+                        return;
+                    }
+                    OilFoxDispatchEvent event = new OilFoxDispatchEvent();
+                    event.begin();
+                    oilFoxStatusListener.onOilFoxRefresh(device);
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.hwid = hwid;
+                        event.commit(getAccountUID(), deviceStore.size());
+                    }
+                });
+            } else { // OilFox device HWID not found in API response
+                dispatcher.dispatch(hwid, () -> {
+                    if (isCurrent(refreshGeneration)) {
+                        oilFoxStatusListener.onOilFoxRemoved(bridgeUID, hwid);
+                    }
+                });
+                dispatcher.remove(hwid); // device retired, no further updates until it is listed again
+            }
+        }
+    }
 
-            try {
-                JsonElement responseObject = getAllDevices();
-                if (responseObject == null) {
-                    logger.debug("readStatus(): responseObject is null");
-                    return;
-                }
-                if (responseObject.isJsonObject()) {
-                    JsonObject object = responseObject.getAsJsonObject();
-                    JsonArray devices = object.get("items").getAsJsonArray();
+    /**
+     * Read and decode all devices from the FoxInsights Customer API. Only called by one refresh at a time.
+     *
+     * @return devices by hwid, null if the request failed
+     */
+    private @Nullable Map<String, JsonObject> readDevices() {
+        logger.debug("readDevices(): started");
+        if (!login()) { // login FoxInsights Customer API or refresh access token
+            logger.error("readDevices(): login failed");
+            return null; // login failed
+        }
+        logger.debug("readDevices(): login successful");
 
-                    updateStatus(ThingStatus.ONLINE);
+        if (getThing().getStatus() != ThingStatus.ONLINE) {
+            return null;
+        }
 
-                    for (OilFoxStatusListener oilFoxStatusListener : oilFoxStatusListeners) {
-                        oilFoxStatusListener.onOilFoxRefresh(devices);
+        try {
+            JsonElement responseObject = getAllDevices();
+            if (responseObject == null) {
+                logger.debug("readDevices(): responseObject is null");
+                return null;
+            }
+            if (responseObject.isJsonObject()) {
+                Map<String, JsonObject> devices;
+                if (OilFoxFlightRecorder.isAvailable()) {
+                    OilFoxDecodeEvent event = new OilFoxDecodeEvent();
+                    event.begin();
+                    devices = decodeDevices(responseObject);
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.commit(getAccountUID(), deviceStore.size());
                     }
+                } else {
+                    devices = decodeDevices(responseObject);
                 }
-            } catch (InterruptedIOException e) {
-                logger.debug("readStatus(): request interrupted {}", e.getMessage());
-                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
-            } catch (IOException e) {
-                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+
+                updateStatus(ThingStatus.ONLINE);
+                return devices;
             }
+        } catch (InterruptedIOException e) {
+            logger.debug("readDevices(): request interrupted {}", e.getMessage());
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+        } catch (IOException e) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
         }
+        return null;
+    }
+
+    /**
+     * Decode the device list response of the FoxInsights Customer API.
+     *
+     * @param responseObject response of /customer-api/v1/device
+     * @return devices by hwid
+     */
+    public static Map<String, JsonObject> decodeDevices(JsonElement responseObject) {
+        JsonArray items = responseObject.getAsJsonObject().get("items").getAsJsonArray();
+        Map<String, JsonObject> devices = new HashMap<>();
+        for (JsonElement item : items) {
+            JsonElement hwid = item.isJsonObject() ? item.getAsJsonObject().get("hwid") : null;
+            if (hwid != null) {
+                devices.put(hwid.getAsString(), item.getAsJsonObject());
+            }
+        }
+        return devices;
     }
 
     @Override
@@ -123,58 +322,213 @@ public class OilFoxBridgeHandler extends BaseBridgeHandler {
         }
         logger.debug("handleCommand(): command: {}", command);
         if (command == RefreshType.REFRESH) {
-            // prevent to overload API fair use from additional refresh at metering time
-            if (channelUID == null) { // called by additional refresh schedule
-                long minutes = MINUTES.between(lastDeviceRefresh, LocalDateTime.now());
-                logger.debug("handleCommand(): last additional device refresh {} minutes ago", minutes);
-                if (minutes < 60) { // Fair Use Policy: "Getting the status of all of your device every hour is
-                                    // considered to be of fair use and no rate limiting is applied."
-                    logger.debug("handleCommand(): too fast refresh, defer request");
-                    return;
-                }
-                lastDeviceRefresh = LocalDateTime.now();
+            if (channelUID != null && isRefillChannel(channelUID.getId())) {
+                updateRefillSummary(); // answered from the refill plan, no request to the OilFox cloud
+                return;
             }
-            readStatus();
+            refresh(channelUID == null);
             return;
         }
         logger.error("handleCommand(): unknown command: {}", command);
     }
 
+    private boolean isRefillChannel(String channelID) {
+        return OilFoxBindingConstants.CHANNEL_REFILL_DUE.equals(channelID)
+                || OilFoxBindingConstants.CHANNEL_REFILL_PLAN.equals(channelID);
+    }
+
+    /**
+     * Called by the device handlers after their reorder date changed. The summary is updated once for all devices of
+     * a refresh.
+     */
+    public void refillPlanChanged() {
+        if (disposed || !refillSummaryPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.schedule(this::updateRefillSummary, REFILL_SUMMARY_DELAY, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            refillSummaryPending.set(false);
+        }
+    }
+
+    /**
+     * Update the refill channels with the devices of this account due within the refill horizon.
+     */
+    private void updateRefillSummary() {
+        refillSummaryPending.set(false);
+        if (disposed) {
+            return;
+        }
+        Map<LocalDate, List<OilFoxRefillPlanner.Refill>> due = refillPlanner.getDue(config.refillHorizon.intValue(),
+                getThing().getUID().getAsString());
+        int count = 0;
+        StringBuilder plan = new StringBuilder();
+        for (Map.Entry<LocalDate, List<OilFoxRefillPlanner.Refill>> entry : due.entrySet()) {
+            plan.append((plan.length() == 0) ? "" : "; ").append(entry.getKey()).append(':');
+            for (OilFoxRefillPlanner.Refill refill : entry.getValue()) {
+                plan.append(' ').append(refill.hwid());
+                count++;
+            }
+        }
+        logger.debug("updateRefillSummary(): bridge UID {}: {} devices due within {} days", getThing().getUID(), count,
+                config.refillHorizon);
+        updateState(OilFoxBindingConstants.CHANNEL_REFILL_DUE, new DecimalType(count));
+        updateState(OilFoxBindingConstants.CHANNEL_REFILL_PLAN, new StringType(plan.toString()));
+    }
+
+    /**
+     * Start a refresh of all devices on the I/O executor. Concurrent refresh requests are coalesced, they get the
+     * future of the refresh already running.
+     *
+     * @param additional true for additional refreshes at metering time, which are limited by the fair use policy
+     * @return future of the refresh, null if the refresh was deferred
+     */
+    private @Nullable Future<?> refresh(boolean additional) {
+        CompletableFuture<@Nullable Void> running = runningRefresh.get();
+        if (running != null) {
+            logger.debug("refresh(): refresh already running, coalesce request");
+            return running;
+        }
+        // prevent to overload API fair use from additional refresh at metering time
+        // Fair Use Policy: "Getting the status of all of your device every hour is considered to be of fair use and no
+        // rate limiting is applied."
+        // regular, console and discovery refreshes are not taken from the budget of additional refreshes
+        OilFoxRequestBudget budget = refreshBudget; // prevent race condition
+        if (additional && !budget.tryAcquire(Instant.now())) { // called by additional refresh schedule
+            logger.debug("refresh(): too fast refresh, defer request, next additional refresh in {} minutes",
+                    budget.getWaitMinutes(Instant.now()));
+            return null;
+        }
+        CompletableFuture<@Nullable Void> future = new CompletableFuture<>();
+        if (!runningRefresh.compareAndSet(null, future)) {
+            return runningRefresh.get(); // other refresh started concurrently
+        }
+        int refreshGeneration = generation.get();
+        Future<?> submitted = ioExecutor.submit(() -> {
+            try {
+                readStatus(refreshGeneration);
+            } finally {
+                runningRefresh.compareAndSet(future, null); // not the refresh of a later initialization
+                future.complete(null);
+            }
+        });
+        if (submitted == null) { // executor shut down
+            runningRefresh.compareAndSet(future, null);
+            future.complete(null);
+        }
+        return future;
+    }
+
+    private OilFoxIOExecutor createIOExecutor() {
+        return new OilFoxIOExecutor("OH-binding-" + this.getThing().getUID().getAsString(), config.virtualThreads);
+    }
+
+    private OilFoxRequestBudget createRefreshBudget() {
+        return new OilFoxRequestBudget(Math.max(1, config.refreshBudget.intValue()), Duration.ofHours(1));
+    }
+
+    private OilFoxPayloadBuffer createPayloadBuffer() {
+        return new OilFoxPayloadBuffer(PAYLOAD_BUFFER_SIZE, config.diagnosticsSampling.intValue());
+    }
+
+    private OilFoxRefreshDispatcher createDispatcher() {
+        return new OilFoxRefreshDispatcher("OH-binding-" + this.getThing().getUID().getAsString() + "-dispatch");
+    }
+
     @Override
     public void initialize() {
         logger.debug("initialize(): bridge UID {}", this.getThing().getUID().toString());
+        generation.incrementAndGet();
+        disposed = false;
         // reset config, maybe settings changed
         config = getConfigAs(OilFoxBridgeConfiguration.class);
-        accessToken = null;
-        refreshToken = null;
-        synchronized (this) {
-            // cancel old job if any
-            ScheduledFuture<?> localRefreshJob = this.refreshJob; // prevent race condition
-            if (localRefreshJob != null) {
-                logger.debug("dispose(): bridge UID {}: cancel refresh schedule", this.getThing().getUID().toString());
-                localRefreshJob.cancel(false);
-            }
-            refreshJob = scheduler.scheduleWithFixedDelay(() -> {
-                readStatus();
-            }, 0, config.refresh.longValue(), TimeUnit.HOURS);
+        session.set(OilFoxSession.NONE);
+        deviceListTime = Instant.EPOCH;
+        payloadBuffer = createPayloadBuffer();
+        refreshBudget = createRefreshBudget();
+        closeTransport();
+        ioExecutor.shutdown();
+        ioExecutor = createIOExecutor(); // before the transport, which sends hedged requests with it
+        try {
+            transport = createTransport();
+            requestLedger = createRequestLedger();
+        } catch (IOException e) {
+            logger.error("initialize(): bridge UID {}: {}", this.getThing().getUID(), e.getMessage());
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+            return;
+        }
+        mqttRelay = createMqttRelay(stopMqttRelay());
+        sessionStore = createSessionStore();
+        resumePending.set(true); // on the first refresh, not to derive the key on the initializing thread
 
-            updateStatus(ThingStatus.ONLINE);
+        // cancel old job if any
+        ScheduledFuture<?> localRefreshJob = this.refreshJob; // prevent race condition
+        if (localRefreshJob != null) {
+            logger.debug("dispose(): bridge UID {}: cancel refresh schedule", this.getThing().getUID().toString());
+            localRefreshJob.cancel(false);
         }
+        dispatcher.shutdown();
+        dispatcher = createDispatcher();
+        refreshJob = scheduler.scheduleWithFixedDelay(() -> {
+            refresh(false);
+        }, 0, config.refresh.longValue(), TimeUnit.HOURS);
+
+        updateStatus(ThingStatus.ONLINE);
     }
 
     @Override
     public void dispose() {
         logger.debug("dispose(): bridge UID {}", this.getThing().getUID().toString());
+        long start = System.nanoTime();
+        disposed = true;
+        generation.incrementAndGet();
+        refreshRequests.clear(); // the things request again after the next metering
         // remove refresh schedule
         ScheduledFuture<?> localRefreshJob = this.refreshJob; // prevent race condition
         if (localRefreshJob != null) {
             logger.debug("dispose(): bridge UID {}: cancel refresh schedule", this.getThing().getUID().toString());
-            localRefreshJob.cancel(false);
+            localRefreshJob.cancel(true);
             this.refreshJob = null;
         }
+        // abort requests in flight instead of waiting for their timeouts
+        closeTransport();
+        stopMqttRelay();
+        ioExecutor.shutdownNow();
+        dispatcher.shutdownNow();
+        CompletableFuture<@Nullable Void> running = runningRefresh.getAndSet(null);
+        if (running != null) {
+            running.complete(null); // release waiting discovery scans
+        }
+        boolean terminated = false;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_DEADLINE);
+            terminated = ioExecutor.awaitTermination(SHUTDOWN_DEADLINE) && dispatcher
+                    .awaitTermination(Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.debug("dispose(): bridge UID {}: disposed in {} ms{}", this.getThing().getUID(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), terminated ? "" : ", tasks still running");
         super.dispose();
     }
 
+    @Override
+    public void handleRemoval() {
+        sessionStorage.remove(getThing().getUID().getAsString()); // the stored session is not needed anymore
+        OilFoxRequestLedger ledger = requestLedger; // prevent race condition
+        if (ledger != null) {
+            ledger.delete(); // requests still running do not write it again
+        } else { // replaying, a ledger of an earlier configuration may exist
+            try {
+                Files.deleteIfExists(resolveFile(getRequestLedgerFile()));
+            } catch (IOException e) {
+                logger.warn("handleRemoval(): request ledger not deleted: {}", e.getMessage());
+            }
+        }
+        super.handleRemoval();
+    }
+
     // communication with OilFox Cloud
     @Nullable
     protected JsonElement query(String address) throws MalformedURLException, IOException {
@@ -184,47 +538,30 @@ public class OilFoxBridgeHandler extends BaseBridgeHandler {
     @Nullable
     protected JsonElement query(String path, JsonElement requestObject) throws MalformedURLException, IOException {
         try {
-            URL url = new URI("https://" + config.address + path).toURL();
-            logger.debug("query(): {}", url.toString());
-            HttpsURLConnection request = (HttpsURLConnection) url.openConnection();
-            request.setReadTimeout(10000);
-            request.setConnectTimeout(15000);
-            request.setRequestProperty("Content-Type", "application/json");
-            request.setDoInput(true);
+            logger.debug("query(): {}", path);
+            OilFoxRequest request;
             if (requestObject == JsonNull.INSTANCE) { // used by getAllDevices
                 if (getThing().getStatus() != ThingStatus.ONLINE) {
                     throw new IOException("Not logged in");
                 }
-                logger.trace("query(): access token: {}", accessToken);
-                request.setRequestProperty("Authorization", "Bearer " + accessToken);
+                request = new OilFoxRequest(path, "application/json", null, session.get().accessToken());
             } else { // used by login()
-                request.setRequestMethod("POST");
-                request.setDoOutput(true);
-
-                OutputStream os = request.getOutputStream();
-                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
-                writer.write(requestObject.toString());
-                writer.flush();
-                writer.close();
-                os.close();
+                request = new OilFoxRequest(path, "application/json", requestObject.toString(), null);
             }
 
-            request.connect();
+            OilFoxResponse response = exchange(request);
 
-            switch (request.getResponseCode()) {
+            switch (response.status()) {
                 case 200: // authorized
                     try {
-                        Reader reader = new InputStreamReader(request.getInputStream(), "UTF-8");
-                        JsonElement element = JsonParser.parseReader(reader);
-                        reader.close();
-                        logger.trace("query(): response {}", element.toString());
+                        JsonElement element = parse(path, response.body());
+                        if (requestObject == JsonNull.INSTANCE) {
+                            lastResponse = response.body(); // device list, without credentials
+                        }
                         return element;
-                    } catch (InterruptedIOException e) {
-                        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, e.getMessage());
-                        logger.error("query(): request interrupted {}", e.getMessage());
-                    } catch (IOException e) {
+                    } catch (JsonParseException e) {
                         updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, e.getMessage());
-                        logger.error("query(): IOException {}", e.getMessage());
+                        logger.error("query(): invalid response {}", e.getMessage());
                     }
                     break;
                 case 401:
@@ -244,13 +581,20 @@ public class OilFoxBridgeHandler extends BaseBridgeHandler {
                     break;
                 default:
                     updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                            "query request failed, response code " + request.getResponseCode());
-                    logger.error("query(): request failed, response code {}", request.getResponseCode());
+                            "query request failed, response code " + response.status());
+                    logger.error("query(): request failed, response code {}", response.status());
             }
-        } catch (URISyntaxException e) {
+        } catch (MalformedURLException e) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, e.getMessage());
-            throw new MalformedURLException("invalid url");
+            throw e;
+        } catch (OilFoxRequestLimitException e) {
+            // request not sent, the account stays online
+            logger.warn("query(): {}", e.getMessage());
         } catch (InterruptedIOException e) {
+            if (disposed) { // request aborted by dispose
+                logger.debug("query(): aborted: {}", e.getMessage());
+                return null;
+            }
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, e.getMessage());
             logger.error("query(): failed with InterruptedIOException: {}", e.getMessage());
         } catch (IOException e) {
@@ -262,97 +606,267 @@ public class OilFoxBridgeHandler extends BaseBridgeHandler {
 
     @Nullable
     protected JsonElement queryRefreshToken() throws MalformedURLException, IOException {
-        try {
-            URL url = new URI("https://" + config.address + "/customer-api/v1/token").toURL();
-            logger.debug("queryRefreshToken(): url: {}", url.toString());
-
-            String payload = "refresh_token=" + refreshToken;
-            logger.trace("queryRefreshToken(): payload: {}", payload);
-
-            HttpsURLConnection request = (HttpsURLConnection) url.openConnection();
-            request.setReadTimeout(10000);
-            request.setConnectTimeout(15000);
-            request.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-            request.setDoInput(true);
-            request.setRequestMethod("POST");
-            request.setDoOutput(true);
-
-            OutputStream os = request.getOutputStream();
-            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
-            writer.write(payload);
-            writer.flush();
-            writer.close();
-            os.close();
-            request.connect();
-
-            switch (request.getResponseCode()) {
-                case 200:
-                    // authorized
-                    try (Reader reader = new InputStreamReader(request.getInputStream(), "UTF-8")) {
-                        JsonElement element = JsonParser.parseReader(reader);
-                        reader.close();
-                        logger.trace("queryRefreshToken(): response {}", element.toString());
-                        return element;
-                    } catch (InterruptedIOException e) {
-                        logger.error("queryRefreshToken(): InterruptedIOException {}", e.getMessage());
-                        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, e.getMessage());
-                    } catch (IOException e) {
-                        logger.error("queryRefreshToken(): IOException {}", e.getMessage());
-                        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, e.getMessage());
-                    }
-                    break;
-                default:
-                    // refresh token invalid
-                    logger.error("queryRefreshToken(): refresh access token failed, unexpected response code {}",
-                            request.getResponseCode());
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                            "queryRefreshToken(): unexpected response code " + request.getResponseCode());
-                    break;
-            }
-        } catch (URISyntaxException e) {
-            throw new MalformedURLException("invalid url");
+        logger.debug("queryRefreshToken(): path: {}", "/customer-api/v1/token");
+
+        String payload = "refresh_token=" + session.get().refreshToken();
+
+        OilFoxRequest request = new OilFoxRequest("/customer-api/v1/token", "application/x-www-form-urlencoded",
+                payload, null);
+        OilFoxResponse response = exchange(request);
+
+        switch (response.status()) {
+            case 200:
+                // authorized
+                try {
+                    JsonElement element = parse(request.path(), response.body());
+                    return element;
+                } catch (JsonParseException e) {
+                    logger.error("queryRefreshToken(): invalid response {}", e.getMessage());
+                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, e.getMessage());
+                }
+                break;
+            default:
+                // refresh token invalid
+                logger.error("queryRefreshToken(): refresh access token failed, unexpected response code {}",
+                        response.status());
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                        "queryRefreshToken(): unexpected response code " + response.status());
+                break;
         }
         // refresh access token failed
-        accessToken = null;
-        refreshToken = null;
+        session.set(OilFoxSession.NONE);
         return null;
     }
 
+    /**
+     * Send a request within the limits of the request ledger and keep latency, server clock offset and response for
+     * diagnostics.
+     */
+    private OilFoxResponse exchange(OilFoxRequest request) throws IOException {
+        OilFoxRequestLedger ledger = requestLedger; // prevent race condition
+        if (ledger != null && !ledger.tryAcquire(request.path(), Instant.now())) {
+            throw new OilFoxRequestLimitException(request.path());
+        }
+        OilFoxHttpEvent event = null;
+        if (OilFoxFlightRecorder.isAvailable()) {
+            event = new OilFoxHttpEvent();
+            event.begin();
+        }
+        Instant requestStart = Instant.now();
+        long start = System.nanoTime();
+        OilFoxResponse response = transport.exchange(request);
+        lastLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.endpoint = request.path();
+                event.method = request.method();
+                event.status = response.status();
+                event.bytes = response.body().getBytes(StandardCharsets.UTF_8).length; // only while recording
+                event.commit(getAccountUID(), deviceStore.size());
+            }
+        }
+        serverClock.update(response.date(), requestStart, lastLatency);
+        payloadBuffer.add(request, response, lastLatency);
+        return response;
+    }
+
+    /**
+     * Parse the JSON body of a response.
+     *
+     * @throws JsonParseException if the body is not valid JSON
+     */
+    private JsonElement parse(String path, String body) {
+        if (!OilFoxFlightRecorder.isAvailable()) {
+            return JsonParser.parseString(body);
+        }
+        OilFoxParseEvent event = new OilFoxParseEvent();
+        event.begin();
+        JsonElement element = JsonParser.parseString(body);
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = path;
+            event.bytes = body.getBytes(StandardCharsets.UTF_8).length;
+            event.commit(getAccountUID(), deviceStore.size());
+        }
+        return element;
+    }
+
+    /**
+     * Create the transport to the FoxInsights Customer API. A replay log replaces the cloud server, a record log
+     * records all traffic with the cloud server.
+     */
+    private OilFoxTransport createTransport() throws IOException {
+        String replayFile = config.replayFile;
+        if (replayFile != null && !replayFile.isBlank()) {
+            logger.info("createTransport(): bridge UID {}: replay API traffic from {}", this.getThing().getUID(),
+                    replayFile);
+            return new OilFoxReplayTransport(resolveFile(replayFile), config.replaySpeed.doubleValue());
+        }
+        // several API hosts may be given, separated by comma
+        List<String> hosts = new ArrayList<>();
+        for (String host : String.valueOf(config.address).split(",")) {
+            if (!host.isBlank()) {
+                OilFoxHttpsTransport.getBaseURI(host.trim()); // reject plain http to other hosts than loopback
+                hosts.add(host.trim());
+            }
+        }
+        // a hedged request needs a thread of its own, the platform threads may all wait for slow requests
+        boolean hedging = config.hedgeRequests && hosts.size() > 1 && ioExecutor.isVirtual();
+        if (config.hedgeRequests && !hedging) {
+            logger.info("createTransport(): bridge UID {}: hedged requests need several API hosts and virtual threads",
+                    this.getThing().getUID());
+        }
+        OilFoxTransport httpsTransport = new OilFoxAdaptiveTransport(hosts, task -> {
+            if (ioExecutor.submit(task) == null) {
+                throw new RejectedExecutionException("executor shut down");
+            }
+        }, hedging, path -> {
+            // failover and hedged requests count towards the request limits like any other request
+            OilFoxRequestLedger ledger = requestLedger; // prevent race condition
+            return ledger == null || ledger.tryAcquire(path, Instant.now());
+        });
+        String recordFile = config.recordFile;
+        if (recordFile != null && !recordFile.isBlank()) {
+            logger.info("createTransport(): bridge UID {}: record API traffic to {}", this.getThing().getUID(),
+                    recordFile);
+            return new OilFoxRecordingTransport(httpsTransport, resolveFile(recordFile));
+        }
+        return httpsTransport;
+    }
+
+    /**
+     * Create the request ledger, which limits the requests per endpoint across restarts. Not used when replaying.
+     */
+    private @Nullable OilFoxRequestLedger createRequestLedger() {
+        String replayFile = config.replayFile;
+        if (replayFile != null && !replayFile.isBlank()) {
+            return null;
+        }
+        // regular refresh and additional refreshes within one hour
+        Map<String, Integer> limits = Map.of(DEVICE_PATH, Math.max(1, config.refreshBudget.intValue()) + 1);
+        return new OilFoxRequestLedger(resolveFile(getRequestLedgerFile()), Duration.ofHours(1), limits,
+                REQUEST_LIMIT);
+    }
+
+    private String getRequestLedgerFile() {
+        return this.getThing().getUID().getAsString().replace(':', '_') + ".ledger";
+    }
+
+    private Path resolveFile(String file) {
+        // relative paths are located in the userdata folder of openHAB
+        return Path.of(OpenHAB.getUserDataFolder(), "oilfox").resolve(file);
+    }
+
+    private @Nullable OilFoxSessionStore createSessionStore() {
+        String replayFile = config.replayFile;
+        String email = config.email;
+        String password = config.password;
+        if ((replayFile != null && !replayFile.isBlank()) || email == null || password == null || password.isEmpty()) {
+            return null; // recorded tokens are not valid for the OilFox cloud
+        }
+        return new OilFoxSessionStore(sessionStorage, getThing().getUID().getAsString(), email, password);
+    }
+
+    /**
+     * Resume the session stored before a restart, once after initialization, instead of a login with password.
+     */
+    private void resumeSession() {
+        OilFoxSessionStore store = sessionStore;
+        if (store == null || !resumePending.compareAndSet(true, false) || session.get().refreshToken() != null) {
+            return;
+        }
+        String refreshToken = store.load();
+        if (refreshToken != null) {
+            logger.debug("resumeSession(): bridge UID {}: resume stored session", getThing().getUID());
+            // no access token yet, it is requested with the refresh token right away
+            session.compareAndSet(OilFoxSession.NONE, new OilFoxSession(null, refreshToken, Instant.EPOCH));
+        }
+    }
+
+    /**
+     * @param previous disconnect of the relay of the last initialization, the new relay connects after it
+     */
+    private @Nullable OilFoxMqttRelay createMqttRelay(CompletableFuture<@Nullable Void> previous) {
+        String host = config.mqttHost;
+        if (host == null || host.isBlank()) {
+            return null;
+        }
+        if (!OilFoxMqttRelay.isAvailable()) {
+            logger.warn("createMqttRelay(): bridge UID {}: MQTT transport not installed, devices not published to {}",
+                    getThing().getUID(), host);
+            return null;
+        }
+        logger.debug("createMqttRelay(): bridge UID {}: publish devices to MQTT broker {}", getThing().getUID(), host);
+        OilFoxMqttRelay relay = new OilFoxMqttRelay(config, getThing().getUID().getId());
+        relay.start(previous);
+        return relay;
+    }
+
+    /**
+     * @return completed when the relay has disconnected
+     */
+    private CompletableFuture<@Nullable Void> stopMqttRelay() {
+        OilFoxMqttRelay relay = mqttRelay; // prevent race condition
+        if (relay == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        mqttRelay = null;
+        return relay.stop();
+    }
+
+    private void closeTransport() {
+        try {
+            transport.close();
+        } catch (IOException e) {
+            logger.debug("closeTransport(): {}", e.getMessage());
+        }
+    }
+
     private boolean login() {
-        if (refreshToken != null) { // we have a refresh access token, use this
-            long minutes = MINUTES.between(accessTokenTime, LocalDateTime.now());
+        long start = System.nanoTime();
+        resumeSession(); // warm start after a restart
+        OilFoxSession currentSession = session.get();
+        if (currentSession.refreshToken() != null) { // we have a refresh access token, use this
+            long minutes = MINUTES.between(currentSession.accessTokenTime(), Instant.now());
             if (minutes < 15) {
                 logger.debug("login(): access token age {} minutes, no need to refresh", minutes);
                 return true;
             }
             logger.debug("login(): access token age {} minutes, need to refresh", minutes);
+            OilFoxLoginEvent event = beginLogin();
             try {
                 JsonElement responseObject = queryRefreshToken();
                 if (responseObject != null) {
-                    logger.trace("login(): responseObject: {}", responseObject.toString());
-
                     if (responseObject.isJsonObject()) {
-                        JsonObject object = responseObject.getAsJsonObject();
-                        accessToken = object.get("access_token").getAsString();
-                        accessTokenTime = LocalDateTime.now();
-                        refreshToken = object.get("refresh_token").getAsString();
-                        logger.trace("login(): access token: {}", accessToken);
-                        logger.trace("login(): refresh token: {}", refreshToken);
+                        updateSession(responseObject.getAsJsonObject());
                         updateStatus(ThingStatus.ONLINE);
+                        if (event != null) {
+                            event.success = true;
+                        }
+                        reportLogin((currentSession.accessToken() == null) ? "stored token" : "token", start);
                         return true; // refresh access token was succesful
                     }
                 }
+            } catch (OilFoxRequestLimitException e) {
+                // a login with user/password would exceed the limit as well
+                logger.warn("login(): {}", e.getMessage());
+                return false;
             } catch (InterruptedIOException e) {
                 // do not set thing OFFLINE, retry with user/password
                 logger.error("login(): refresh token exception InterruptedIOException {}", e.getMessage());
             } catch (IOException e) {
                 // do not set thing OFFLINE, retry with user/password
                 logger.error("login(): refresh token exception IOException {}", e.getMessage());
+            } finally {
+                commitLogin(event, "token");
             }
         }
 
         // login with user/password
         logger.debug("login(): login to FoxInsights API with user and password");
+        start = System.nanoTime();
+        OilFoxLoginEvent event = beginLogin();
         try {
             JsonObject requestObject = new JsonObject();
             requestObject.addProperty("email", config.email);
@@ -363,20 +877,17 @@ public class OilFoxBridgeHandler extends BaseBridgeHandler {
                 logger.debug("login(): responseObject is null");
                 return false;
             }
-            logger.trace("login(): responseObject: {}", responseObject.toString());
-
             if (responseObject.isJsonObject()) {
-                JsonObject object = responseObject.getAsJsonObject();
-                accessToken = object.get("access_token").getAsString();
-                accessTokenTime = LocalDateTime.now();
-                refreshToken = object.get("refresh_token").getAsString();
-                logger.trace("login(): access token: {}", accessToken);
-                logger.trace("login(): refresh token: {}", refreshToken);
+                updateSession(responseObject.getAsJsonObject());
             } else {
                 logger.error("login(): invalid responseObject");
                 return false;
             }
             updateStatus(ThingStatus.ONLINE);
+            if (event != null) {
+                event.success = true;
+            }
+            reportLogin("password", start);
             return true;
         } catch (InterruptedIOException e) {
             logger.error("login(): user/password InterruptedIOException: {}", e.getMessage());
@@ -385,68 +896,325 @@ public class OilFoxBridgeHandler extends BaseBridgeHandler {
         } catch (IOException e) {
             logger.error("login(): user/password IOException: {}", e.getMessage(), e);
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, e.getMessage());
+        } finally {
+            commitLogin(event, "password");
         }
         return false;
     }
 
+    private void reportLogin(String method, long start) {
+        loginLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        loginMethod = method;
+        logger.debug("login(): bridge UID {}: logged in with {} in {} ms", getThing().getUID(), method, loginLatency);
+    }
+
+    /**
+     * @return login event, null if the Java Flight Recorder is not available
+     */
+    private @Nullable OilFoxLoginEvent beginLogin() {
+        if (!OilFoxFlightRecorder.isAvailable()) {
+            return null;
+        }
+        OilFoxLoginEvent event = new OilFoxLoginEvent();
+        event.begin();
+        return event;
+    }
+
+    private void commitLogin(@Nullable OilFoxLoginEvent event, String method) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.commit(getAccountUID(), deviceStore.size());
+        }
+    }
+
+    private String getAccountUID() {
+        return this.getThing().getUID().getAsString();
+    }
+
+    private void updateSession(JsonObject object) {
+        OilFoxSession newSession = new OilFoxSession(object.get("access_token").getAsString(),
+                object.get("refresh_token").getAsString(), Instant.now());
+        session.set(newSession);
+        OilFoxSessionStore store = sessionStore;
+        String refreshToken = newSession.refreshToken();
+        if (store != null && refreshToken != null) {
+            store.save(refreshToken); // resumed after a restart
+        }
+    }
+
     @Nullable
     public JsonElement getAllDevices() throws MalformedURLException, IOException {
-        JsonElement responseObject = query("/customer-api/v1/device");
+        JsonElement responseObject = query(DEVICE_PATH);
         if (responseObject == null) {
             logger.error("getAllDevices(): responseObject is null");
             return null;
         }
-        logger.debug("getAllDevices(): responseObject: {}", responseObject.toString());
-
         if (responseObject.isJsonObject()) {
             JsonObject object = responseObject.getAsJsonObject();
             JsonArray devices = object.get("items").getAsJsonArray();
 
+            List<String> hwids = new ArrayList<>(devices.size());
             for (JsonElement device : devices) {
                 String hwid = device.getAsJsonObject().get("hwid").getAsString();
                 logger.debug("getAllDevices(): hwid {}: process device from API respone", hwid);
-                // check if device with same hwid exists, HWID must be unique
-                boolean found = false;
+                hwids.add(hwid);
+            }
+            if (!announceDevices(hwids)) {
+                return null;
+            }
+        } else {
+            logger.error("getAllDevices(): invalid responseObject");
+            return null;
+        }
+        return responseObject;
+    }
+
+    /**
+     * Announce devices to the status listeners, if no thing exists for them yet.
+     *
+     * @param hwids hardware IDs of the devices from the API response
+     * @return false if a status listener failed
+     */
+    private boolean announceDevices(List<String> hwids) {
+        for (String hwid : hwids) {
+            // check if device with same hwid exists, HWID must be unique
+            boolean found = false;
+            for (OilFoxStatusListener oilFoxStatusListener : oilFoxStatusListeners) {
+                @Nullable
+                String existingHWID = oilFoxStatusListener.getHWID();
+                if (existingHWID == null) {
+                    continue;
+                }
+                logger.trace("announceDevices(): existing device HWID {}", existingHWID);
+                if (hwid.equals(existingHWID)) {
+                    logger.debug("announceDevices(): hwid {}: thing exists", hwid);
+                    found = true;
+                }
+            }
+            // add new found device
+            if (!found) {
                 for (OilFoxStatusListener oilFoxStatusListener : oilFoxStatusListeners) {
-                    @Nullable
-                    String existingHWID = oilFoxStatusListener.getHWID();
-                    if (existingHWID == null) {
-                        continue;
-                    }
-                    logger.trace("getAllDevices(): existing device HWID {}", existingHWID);
-                    if (hwid.equals(existingHWID)) {
-                        logger.debug("getAllDevices(): hwid {}: thing exists", hwid);
-                        found = true;
+                    try {
+                        oilFoxStatusListener.onOilFoxAdded(this.getThing().getUID(), hwid);
+                    } catch (Exception e) {
+                        logger.error("An exception occurred while calling the OilFoxStatusListener", e);
+                        return false;
                     }
                 }
-                // add new found device
-                if (!found) {
-                    for (OilFoxStatusListener oilFoxStatusListener : oilFoxStatusListeners) {
-                        try {
-                            oilFoxStatusListener.onOilFoxAdded(this.getThing().getUID(), hwid);
-                        } catch (Exception e) {
-                            logger.error("An exception occurred while calling the OilFoxStatusListener", e);
-                            return null;
-                        }
-                    }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Announce the devices of the device store for a discovery scan. The API is only queried, if the last device list
+     * request is older than the discovery cache time; a failed or empty device list is cached as well, so scans of an
+     * empty account do not query the API each time. That refresh counts as a regular refresh, a scan never uses the
+     * additional refreshes reserved for the meterings.
+     */
+    public void discoverDevices() {
+        if (MINUTES.between(deviceListTime, Instant.now()) >= config.discoveryCache.longValue()) {
+            logger.debug("discoverDevices(): device list outdated, refresh from API");
+            deviceListTime = Instant.now(); // not requested again, if the refresh is not started
+            Future<?> future = refresh(false);
+            if (future != null) {
+                try {
+                    future.get(DISCOVERY_TIMEOUT, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException | TimeoutException e) {
+                    logger.debug("discoverDevices(): refresh failed: {}", e.getMessage());
                 }
             }
+        }
+        List<String> hwids = deviceStore.getHWIDs();
+        logger.debug("discoverDevices(): announce {} devices from device store", hwids.size());
+        announceDevices(hwids);
+    }
+
+    /**
+     * Request an additional refresh for a device, e.g. after its metering. While enough additional refreshes are left
+     * for all waiting requests, the refresh is granted at once. Otherwise the requests of a short grant window compete
+     * for the budget of additional refreshes, see {@link #grantRefresh()}.
+     *
+     * @param hwid hardware ID of the requesting device
+     */
+    public void requestRefresh(String hwid) {
+        refreshRequests.add(hwid);
+        if (!grantPending.get() && refreshBudget.getRemaining(Instant.now()) >= refreshRequests.size()) {
+            grantRefresh(); // budget not contended, no need to wait for the requests of other devices
         } else {
-            logger.error("getAllDevices(): invalid responseObject");
+            scheduleGrant(GRANT_WINDOW);
+        }
+    }
+
+    private void scheduleGrant(long delay) {
+        if (disposed || !grantPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.schedule(this::grantRefresh, delay, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            grantPending.set(false);
+        }
+    }
+
+    /**
+     * Grant an additional refresh to the most urgent device that requested one. The refresh updates all devices, so it
+     * serves all requests. Without additional refreshes left, the requests are kept for the next grant, when the
+     * budget allows the next additional refresh.
+     *
+     * @return hwid of the device the refresh was granted to, null if it was deferred
+     */
+    @Nullable
+    String grantRefresh() {
+        grantPending.set(false);
+        List<String> requests = new ArrayList<>(refreshRequests);
+        refreshRequests.removeAll(requests);
+        if (disposed || requests.isEmpty()) {
             return null;
         }
-        return responseObject;
+        OilFoxRequestBudget budget = refreshBudget; // prevent race condition
+        int remaining = budget.getRemaining(Instant.now());
+        List<OilFoxRefreshAllocator.Ranking> rankings = OilFoxRefreshAllocator.rank(deviceStore, requests,
+                serverNow());
+        String hwid = rankings.isEmpty() ? requests.get(0) : rankings.get(0).hwid(); // unknown devices rank last
+        if (remaining == 0 || refresh(true) == null) {
+            long wait = budget.getWaitMinutes(Instant.now());
+            logger.debug("grantRefresh(): hwid {}: first of {} requests, no additional refresh left, defer requests "
+                    + "for {} minutes", hwid, requests.size(), wait);
+            refreshRequests.addAll(requests);
+            scheduleGrant(Math.max(GRANT_WINDOW, TimeUnit.MINUTES.toSeconds(wait)));
+            return null;
+        }
+        logger.debug("grantRefresh(): hwid {}: first of {} requests, {} additional refreshes left, refresh", hwid,
+                requests.size(), remaining);
+        return hwid;
+    }
+
+    /**
+     * @return hwids of the devices waiting for an additional refresh, used by the tests
+     */
+    Set<String> getRefreshRequests() {
+        return Set.copyOf(refreshRequests);
+    }
+
+    /**
+     * Refresh all devices now, ignoring the fair use limit of additional refreshes. Coalesced with a refresh already
+     * running.
+     *
+     * @return future of the refresh, null if the bridge is disposed
+     */
+    public @Nullable Future<?> forceRefresh() {
+        return refresh(false);
+    }
+
+    /**
+     * @return minutes until the fair use policy allows the next additional refresh
+     */
+    public long getFairUseWaitMinutes() {
+        return refreshBudget.getWaitMinutes(Instant.now());
+    }
+
+    public OilFoxRequestBudget getRefreshBudget() {
+        return refreshBudget;
+    }
+
+    /**
+     * @return current time of the OilFox cloud, corrected by the clock offset seen in the responses
+     */
+    public Instant serverNow() {
+        return serverClock.now();
+    }
+
+    public @Nullable OilFoxRequestLedger getRequestLedger() {
+        return requestLedger;
+    }
+
+    public @Nullable OilFoxMqttRelay getMqttRelay() {
+        return mqttRelay;
+    }
+
+    public OilFoxTransport getTransport() {
+        return transport;
+    }
+
+    public OilFoxServerClock getServerClock() {
+        return serverClock;
+    }
+
+    public OilFoxSession getSession() {
+        return session.get();
+    }
+
+    /**
+     * @return latency of the last login or session resume in milliseconds, -1 if none was done yet
+     */
+    public long getLoginLatency() {
+        return loginLatency;
+    }
+
+    public String getLoginMethod() {
+        return loginMethod;
+    }
+
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * @return raw body of the last device list received, null if none was received yet
+     */
+    public @Nullable String getLastResponse() {
+        return lastResponse;
+    }
+
+    public OilFoxDeviceStore getDeviceStore() {
+        return deviceStore;
+    }
+
+    public OilFoxPayloadBuffer getPayloadBuffer() {
+        return payloadBuffer;
+    }
+
+    public OilFoxIOExecutor getIOExecutor() {
+        return ioExecutor;
+    }
+
+    public OilFoxRefreshDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public OilFoxBridgeConfiguration getBridgeConfiguration() {
+        return config;
+    }
+
+    /**
+     * @return the registered status listeners, used by the tests
+     */
+    public List<OilFoxStatusListener> getOilFoxStatusListeners() {
+        return List.copyOf(oilFoxStatusListeners);
     }
 
     public boolean registerOilFoxStatusListener(OilFoxStatusListener oilFoxStatusListener) {
         logger.debug("registerOilFoxStatusListener(): bridge UID {}: register device hwid: {}",
                 this.getThing().getUID().toString(), oilFoxStatusListener.getHWID());
-        return oilFoxStatusListeners.add(oilFoxStatusListener);
+        // a handler initialized again without dispose must not be registered twice, it would get every update twice
+        return oilFoxStatusListeners.addIfAbsent(oilFoxStatusListener);
     }
 
     public boolean unregisterOilFoxStatusListener(OilFoxStatusListener oilFoxStatusListener) {
         logger.debug("unregisterOilFoxStatusListener(): bridge UID {}: unregister device hwid: {}",
                 this.getThing().getUID().toString(), oilFoxStatusListener.getHWID());
+        String hwid = oilFoxStatusListener.getHWID();
+        if (hwid != null) {
+            dispatcher.remove(hwid);
+        }
         return oilFoxStatusListeners.remove(oilFoxStatusListener);
     }
 }
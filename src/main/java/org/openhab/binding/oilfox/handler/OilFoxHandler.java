@@ -12,24 +12,29 @@
  */
 package org.openhab.binding.oilfox.handler;
 
-import static java.time.temporal.ChronoUnit.MINUTES;
-
-import java.math.BigInteger;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.oilfox.OilFoxBindingConstants;
+import org.openhab.binding.oilfox.internal.OilFoxBridgeConfiguration;
 import org.openhab.binding.oilfox.internal.OilFoxDeviceConfiguration;
+import org.openhab.binding.oilfox.internal.OilFoxDeviceStore;
+import org.openhab.binding.oilfox.internal.OilFoxRefillPlanner;
+import org.openhab.binding.oilfox.internal.OilFoxStates;
+import org.openhab.binding.oilfox.internal.OilFoxThresholdAlert;
+import org.openhab.binding.oilfox.internal.jfr.OilFoxChannelUpdateEvent;
+import org.openhab.binding.oilfox.internal.jfr.OilFoxFlightRecorder;
 import org.openhab.core.library.types.DateTimeType;
-import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.QuantityType;
-import org.openhab.core.library.types.StringType;
 import org.openhab.core.library.unit.SIUnits;
 import org.openhab.core.library.unit.Units;
 import org.openhab.core.thing.Bridge;
@@ -42,11 +47,11 @@ import org.openhab.core.thing.binding.BaseThingHandler;
 import org.openhab.core.thing.binding.ThingHandler;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.RefreshType;
+import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
@@ -59,16 +64,44 @@ import com.google.gson.JsonObject;
 @NonNullByDefault
 public class OilFoxHandler extends BaseThingHandler implements OilFoxStatusListener {
 
+    private static final long DEFAULT_PUBLICATION_DELAY = 300; // seconds
+    private static final long MIN_PUBLICATION_DELAY = 60; // seconds
+    private static final long MAX_PUBLICATION_DELAY = 3600; // seconds
+    private static final long[] FOLLOW_UP_BACKOFF = { 2, 5, 10, 20 }; // minutes
+
     private final Logger logger = LoggerFactory.getLogger(OilFoxHandler.class);
+    private final OilFoxRefillPlanner refillPlanner;
     private @Nullable ScheduledFuture<?> deviceRefreshJob;
-    private LocalDateTime lastDeviceRefresh = LocalDateTime.now().minusDays(1); // make sure initial value in past
-
-    public OilFoxHandler(Thing thing) {
+    private @Nullable Instant awaitedMetering; // metering time the additional refresh is scheduled for
+    private boolean polling = false; // additional refresh for awaited metering sent
+    private int followUpStep = 0;
+    private boolean adaptiveRefresh = false;
+    private volatile boolean disposed = false; // refresh callbacks may still be delivered after dispose
+    private long publicationDelay = DEFAULT_PUBLICATION_DELAY; // seconds from metering to publication by the API
+    private OilFoxThresholdAlert quantityAlert = new OilFoxThresholdAlert(null, BigDecimal.ZERO);
+    private OilFoxThresholdAlert percentAlert = new OilFoxThresholdAlert(null, BigDecimal.ZERO);
+    private OilFoxThresholdAlert daysReachAlert = new OilFoxThresholdAlert(null, BigDecimal.ZERO);
+    private int reorderLevel = 20; // percent
+    private @Nullable OilFoxRefillPlanner.Refill refill; // last entry of the refill plan
+    private @Nullable Instant refillMetering; // metering of the last entry of the refill plan
+
+    // channel table and last states, so a refresh with unchanged values creates no new objects
+    private final ChannelTable channels;
+    private final MeteringTime currentMeteringAt = new MeteringTime();
+    private final MeteringTime nextMeteringAt = new MeteringTime();
+    private @Nullable State quantityState;
+    private int lastQuantity;
+    private boolean lastQuantityLitre;
+
+    public OilFoxHandler(Thing thing, OilFoxRefillPlanner refillPlanner) {
         super(thing);
+        this.refillPlanner = refillPlanner;
+        this.channels = ChannelTable.of(thing.getUID());
     }
 
     @Override
     public void initialize() {
+        disposed = false;
         @Nullable
         Bridge bridge = this.getBridge(); // prevent race condition
         @Nullable
@@ -96,6 +129,9 @@ public class OilFoxHandler extends BaseThingHandler implements OilFoxStatusListe
                 if (handler != null) {
                     logger.debug("initialize(): thingID: {}, hwid: {}: register status listener", getThing().getUID(),
                             hwid);
+                    initializeAlerts(((OilFoxBridgeHandler) handler).getBridgeConfiguration());
+                    adaptiveRefresh = ((OilFoxBridgeHandler) handler).getBridgeConfiguration().adaptiveRefresh;
+                    reorderLevel = ((OilFoxBridgeHandler) handler).getBridgeConfiguration().reorderLevel.intValue();
                     ((OilFoxBridgeHandler) handler).registerOilFoxStatusListener(this);
                     updateStatus(ThingStatus.ONLINE);
                 } else {
@@ -112,6 +148,32 @@ public class OilFoxHandler extends BaseThingHandler implements OilFoxStatusListe
         }
     }
 
+    private void initializeAlerts(OilFoxBridgeConfiguration bridgeConfig) {
+        // device thresholds override the account thresholds
+        OilFoxDeviceConfiguration config = getConfigAs(OilFoxDeviceConfiguration.class);
+        BigDecimal alertQuantity = (config.alertQuantity != null) ? config.alertQuantity : bridgeConfig.alertQuantity;
+        BigDecimal alertPercent = (config.alertPercent != null) ? config.alertPercent : bridgeConfig.alertPercent;
+        BigDecimal alertDaysReach = (config.alertDaysReach != null) ? config.alertDaysReach
+                : bridgeConfig.alertDaysReach;
+        logger.debug("initializeAlerts(): {}: thresholds quantity {}, percent {}, days reach {}, hysteresis {} %",
+                this.getThing().getUID(), alertQuantity, alertPercent, alertDaysReach, bridgeConfig.alertHysteresis);
+        quantityAlert = new OilFoxThresholdAlert(alertQuantity, bridgeConfig.alertHysteresis);
+        percentAlert = new OilFoxThresholdAlert(alertPercent, bridgeConfig.alertHysteresis);
+        daysReachAlert = new OilFoxThresholdAlert(alertDaysReach, bridgeConfig.alertHysteresis);
+    }
+
+    private void checkAlert(OilFoxThresholdAlert alert, ChannelUID channelUID, int value) {
+        if (value == OilFoxDeviceStore.MISSING) {
+            return;
+        }
+        String event = alert.check(value);
+        if (event != null) {
+            logger.debug("checkAlert(): hwid {}: channel {} value {} event {}", getHWID(), channelUID.getId(), value,
+                    event);
+            triggerChannel(channelUID, event);
+        }
+    }
+
     @Override
     public void dispose() {
         String hwid = this.getThing().getProperties().get(OilFoxBindingConstants.PROPERTY_HWID);
@@ -126,12 +188,15 @@ public class OilFoxHandler extends BaseThingHandler implements OilFoxStatusListe
                 ((OilFoxBridgeHandler) handler).unregisterOilFoxStatusListener(this);
             }
         }
-        // remove additional schedule
-        ScheduledFuture<?> localDeviceRefreshJob = this.deviceRefreshJob; // prevent race condition
-        if (localDeviceRefreshJob != null) {
+        // remove additional schedule; synchronized with refresh callbacks still delivered, so they do not schedule
+        // a new job after dispose
+        synchronized (this) {
+            disposed = true;
             logger.debug("dispose(): hwid {}: cancel additional refresh schedule", hwid);
-            localDeviceRefreshJob.cancel(false);
+            cancelDeviceRefreshJob();
+            awaitedMetering = null;
         }
+        removeFromRefillPlan();
         super.dispose();
     }
 
@@ -178,6 +243,8 @@ public class OilFoxHandler extends BaseThingHandler implements OilFoxStatusListe
     @Override
     public void onOilFoxRemoved(@Nullable ThingUID bridge, @Nullable String hwid) {
         logger.debug("onOilFoxRemoved(): bridge {}, hwid {}", bridge, hwid);
+        // Oilfox device HWID not found in API response
+        updateStatus(ThingStatus.OFFLINE);
     }
 
     @Override
@@ -192,170 +259,358 @@ public class OilFoxHandler extends BaseThingHandler implements OilFoxStatusListe
     }
 
     @Override
-    public void onOilFoxRefresh(JsonArray devices) {
+    public synchronized void onOilFoxRefresh(JsonObject object) {
+        if (disposed) {
+            logger.debug("onOilFoxRefresh(): hwid {}: handler disposed, update dropped", getHWID());
+            return;
+        }
+        if (!OilFoxFlightRecorder.isAvailable()) {
+            updateChannels(object);
+            return;
+        }
+        OilFoxChannelUpdateEvent event = new OilFoxChannelUpdateEvent();
+        event.begin();
+        updateChannels(object);
+        event.end();
+        if (event.shouldCommit()) {
+            OilFoxBridgeHandler bridgeHandler = getBridgeHandler();
+            ThingUID bridgeUID = getThing().getBridgeUID();
+            event.hwid = String.valueOf(getHWID());
+            event.commit((bridgeUID == null) ? "" : bridgeUID.getAsString(),
+                    (bridgeHandler == null) ? 0 : bridgeHandler.getDeviceStore().size());
+        }
+    }
+
+    private void updateChannels(JsonObject object) {
         String hwid = getHWID();
         logger.debug("onOilFoxRefresh(): hwid {}: refresh channels", hwid);
         if (hwid == null) {
             logger.error("onOilFoxRefresh(): hwid is not set");
             return;
         }
+        @Nullable
+        JsonElement element = null;
 
-        for (JsonElement device : devices) {
-            if (!device.isJsonObject()) {
-                continue;
-            }
-            JsonObject object = device.getAsJsonObject();
-            @Nullable
-            JsonElement element = null;
+        String deviceHWID = object.get("hwid").getAsString();
+        logger.trace("onOilFoxRefresh(): source hwid {}", deviceHWID);
+        if (!hwid.equals(deviceHWID)) {
+            return;
+        }
+        // states are shared or reused while the value is unchanged, channel UIDs are created once per handler
+
+        // validation error:
+        element = object.get(OilFoxBindingConstants.OILFOX_VALIDATION_ERROR);
+        if (element != null) {
+            String validationError = element.getAsString();
+            logger.warn("onOilFoxRefresh(): hwid {}: validation error: {}", deviceHWID, validationError);
+            this.updateState(channels.validationError(), OilFoxStates.string(validationError));
+        } else {
+            this.updateState(channels.validationError(), UnDefType.UNDEF);
+        }
 
-            String deviceHWID = object.get("hwid").getAsString();
-            logger.trace("onOilFoxRefresh(): source hwid {}", deviceHWID);
-            if (!hwid.equals(deviceHWID)) {
-                continue;
-            }
+        // metering times
+        @Nullable
+        Instant currentMetering = null;
+        element = object.get(OilFoxBindingConstants.OILFOX_CURRENT_METERING_AT);
+        if (element != null) {
+            currentMetering = currentMeteringAt.parse(deviceHWID, element.getAsString());
+            this.updateState(channels.currentMeteringAt(), currentMeteringAt.getState());
+        } else {
+            logger.warn("onOilFoxRefresh(): hwid {}: current metering time missing from API", deviceHWID);
+            this.updateState(channels.currentMeteringAt(), UnDefType.UNDEF);
+        }
 
-            // validation error:
-            element = object.get(OilFoxBindingConstants.OILFOX_VALIDATION_ERROR);
-            if (element != null) {
-                String validationError = element.getAsString();
-                logger.warn("onOilFoxRefresh(): hwid {}: validation error: {}", deviceHWID, validationError);
-                this.updateState(OilFoxBindingConstants.CHANNEL_VALIDATION_ERROR, new StringType(validationError));
-            } else {
-                logger.debug("onOilFoxRefresh(): hwid {}: no validation error", deviceHWID);
-                this.updateState(OilFoxBindingConstants.CHANNEL_VALIDATION_ERROR, UnDefType.UNDEF);
-            }
+        @Nullable
+        Instant nextMetering = null;
+        element = object.get(OilFoxBindingConstants.OILFOX_NEXT_METERING_AT);
+        if (element != null) {
+            nextMetering = nextMeteringAt.parse(deviceHWID, element.getAsString());
+            this.updateState(channels.nextMeteringAt(), nextMeteringAt.getState());
+        } else {
+            logger.warn("onOilFoxRefresh(): hwid {}: next metering time missing from API", deviceHWID);
+            this.updateState(channels.nextMeteringAt(), UnDefType.UNDEF);
+        }
 
-            // metering times
-            @Nullable
-            String currentMeteringAt = null;
-            element = object.get(OilFoxBindingConstants.OILFOX_CURRENT_METERING_AT);
-            if (element != null) {
-                currentMeteringAt = element.getAsString();
-                logger.debug("onOilFoxRefresh(): hwid {}: currentMeteringAt {}", deviceHWID, currentMeteringAt);
-                this.updateState(OilFoxBindingConstants.CHANNEL_CURRENT_METERING_AT,
-                        new DateTimeType(currentMeteringAt));
-            } else {
-                logger.warn("onOilFoxRefresh(): hwid {}: current metering time missing from API", deviceHWID);
-                this.updateState(OilFoxBindingConstants.CHANNEL_CURRENT_METERING_AT, UnDefType.UNDEF);
-            }
+        // first days this information is missing with a new OilFox device
+        int daysReach = OilFoxDeviceStore.MISSING;
+        element = object.get(OilFoxBindingConstants.OILFOX_DAYS_REACH);
+        if (element != null) {
+            daysReach = element.getAsInt();
+            this.updateState(channels.daysReach(), OilFoxStates.decimal(daysReach));
+        } else {
+            logger.info("onOilFoxRefresh(): hwid {}: daysReach missing from API", deviceHWID);
+            this.updateState(channels.daysReach(), UnDefType.UNDEF);
+        }
 
-            @Nullable
-            String nextMeteringAt = null;
-            element = object.get(OilFoxBindingConstants.OILFOX_NEXT_METERING_AT);
-            if (element != null) {
-                nextMeteringAt = element.getAsString();
-                logger.debug("onOilFoxRefresh(): hwid {}: nextMeteringAt {}", deviceHWID, nextMeteringAt);
-                this.updateState(OilFoxBindingConstants.CHANNEL_NEXT_METERING_AT, new DateTimeType(nextMeteringAt));
-            } else {
-                logger.warn("onOilFoxRefresh(): hwid {}: next metering time missing from API", deviceHWID);
-                this.updateState(OilFoxBindingConstants.CHANNEL_NEXT_METERING_AT, UnDefType.UNDEF);
-            }
+        // battery level
+        element = object.get(OilFoxBindingConstants.OILFOX_BATTERY_LEVEL);
+        if (element != null) {
+            this.updateState(channels.batteryLevel(), OilFoxStates.string(element.getAsString()));
+        } else {
+            logger.info("onOilFoxRefresh(): hwid {}: battery level missing from API", deviceHWID);
+            this.updateState(channels.batteryLevel(), UnDefType.UNDEF);
+        }
 
-            // first days this information is missing with a new OilFox device
-            element = object.get(OilFoxBindingConstants.OILFOX_DAYS_REACH);
-            if (element != null) {
-                BigInteger daysReach = element.getAsBigInteger();
-                logger.debug("onOilFoxRefresh(): hwid {}: daysReach {}", deviceHWID, daysReach);
-                this.updateState(OilFoxBindingConstants.CHANNEL_DAYS_REACH, DecimalType.valueOf(daysReach.toString()));
-            } else {
-                logger.info("onOilFoxRefresh(): hwid {}: daysReach missing from API", deviceHWID);
-                this.updateState(OilFoxBindingConstants.CHANNEL_DAYS_REACH, UnDefType.UNDEF);
-            }
+        // fill level percent
+        int fillLevelPercent = OilFoxDeviceStore.MISSING;
+        element = object.get(OilFoxBindingConstants.OILFOX_FILL_LEVEL_PERCENT);
+        if (element != null) {
+            fillLevelPercent = element.getAsInt();
+            this.updateState(channels.fillLevelPercent(), OilFoxStates.decimal(fillLevelPercent));
+        } else {
+            logger.warn("onOilFoxRefresh(): hwid {}: fill level percent missing from API", deviceHWID);
+            this.updateState(channels.fillLevelPercent(), UnDefType.UNDEF);
+        }
 
-            // battery level
-            element = object.get(OilFoxBindingConstants.OILFOX_BATTERY_LEVEL);
-            if (element != null) {
-                String batteryLevel = element.getAsString();
-                logger.debug("onOilFoxRefresh(): hwid {}: batteryLevel {}", deviceHWID, batteryLevel);
-                this.updateState(OilFoxBindingConstants.CHANNEL_BATTERY_LEVEL, new StringType(batteryLevel));
-            } else {
-                logger.info("onOilFoxRefresh(): hwid {}: battery level missing from API", deviceHWID);
-                this.updateState(OilFoxBindingConstants.CHANNEL_BATTERY_LEVEL, UnDefType.UNDEF);
-            }
+        // fill level unit
+        String quantityUnit = "L"; // use litre as default
+        element = object.get(OilFoxBindingConstants.OILFOX_QUANTITY_UNIT);
+        if (element != null) {
+            quantityUnit = element.getAsString();
+            this.updateState(channels.quantityUnit(), OilFoxStates.string(quantityUnit));
+        } else {
+            logger.warn("onOilFoxRefresh(): hwid {}: fill level unit missing from API", deviceHWID);
+            this.updateState(channels.quantityUnit(), UnDefType.UNDEF);
+        }
 
-            // fill level percent
-            element = object.get(OilFoxBindingConstants.OILFOX_FILL_LEVEL_PERCENT);
-            if (element != null) {
-                BigInteger fillLevelPercent = element.getAsBigInteger();
-                logger.debug("onOilFoxRefresh(): hwid {}: fillLevelPercent {}", deviceHWID, fillLevelPercent);
-                this.updateState(OilFoxBindingConstants.CHANNEL_FILL_LEVEL_PERCENT,
-                        DecimalType.valueOf(fillLevelPercent.toString()));
-            } else {
-                logger.warn("onOilFoxRefresh(): hwid {}: fill level percent missing from API", deviceHWID);
-                this.updateState(OilFoxBindingConstants.CHANNEL_FILL_LEVEL_PERCENT, UnDefType.UNDEF);
-            }
+        // fill level quantity
+        int fillLevelQuantity = OilFoxDeviceStore.MISSING;
+        element = object.get(OilFoxBindingConstants.OILFOX_FILL_LEVEL_QUANTITY);
+        if (element != null) {
+            fillLevelQuantity = element.getAsInt();
+            this.updateState(channels.fillLevelQuantity(), getQuantityState(fillLevelQuantity, quantityUnit));
+        } else {
+            logger.warn("onOilFoxRefresh(): hwid {}: fill level quantity missing from API", deviceHWID);
+            this.updateState(channels.fillLevelQuantity(), UnDefType.UNDEF);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("onOilFoxRefresh(): hwid {}: metering {}, next {}, days reach {}, fill level {} %, {} {}",
+                    deviceHWID, currentMetering, nextMetering, daysReach, fillLevelPercent, fillLevelQuantity,
+                    quantityUnit);
+        }
 
-            // fill level unit
-            String quantityUnit = "L"; // use litre as default
-            element = object.get(OilFoxBindingConstants.OILFOX_QUANTITY_UNIT);
-            if (element != null) {
-                quantityUnit = element.getAsString();
-                logger.debug("onOilFoxRefresh(): hwid {}: quantityUnit {}", deviceHWID, quantityUnit);
-                this.updateState(OilFoxBindingConstants.CHANNEL_QUANTITY_UNIT, new StringType(quantityUnit));
-            } else {
-                logger.warn("onOilFoxRefresh(): hwid {}: fill level unit missing from API", deviceHWID);
-                this.updateState(OilFoxBindingConstants.CHANNEL_QUANTITY_UNIT, UnDefType.UNDEF);
-            }
+        if (getThing().getStatus() != ThingStatus.ONLINE) {
+            updateStatus(ThingStatus.ONLINE);
+        }
 
-            // fill level quantity
-            element = object.get(OilFoxBindingConstants.OILFOX_FILL_LEVEL_QUANTITY);
-            if (element != null) {
-                BigInteger fillLevelQuantity = element.getAsBigInteger();
-                if ("L".equals(quantityUnit)) {
-                    logger.debug("onOilFoxRefresh(): hwid {}: fillLevelQuantity {} L", deviceHWID, fillLevelQuantity);
-                    this.updateState(OilFoxBindingConstants.CHANNEL_FILL_LEVEL_QUANTITY,
-                            new QuantityType<>(DecimalType.valueOf(fillLevelQuantity.toString()), Units.LITRE));
-                } else {
-                    logger.debug("onOilFoxRefresh(): hwid {}: fillLevelQuantity {} Kg", deviceHWID, fillLevelQuantity);
-                    this.updateState(OilFoxBindingConstants.CHANNEL_FILL_LEVEL_QUANTITY,
-                            new QuantityType<>(DecimalType.valueOf(fillLevelQuantity.toString()), SIUnits.KILOGRAM));
+        // threshold alerts, only trigger on alert state changes
+        checkAlert(quantityAlert, channels.quantityAlert(), fillLevelQuantity);
+        checkAlert(percentAlert, channels.percentAlert(), fillLevelPercent);
+        checkAlert(daysReachAlert, channels.daysReachAlert(), daysReach);
+
+        // projected reorder date of the binding-wide refill plan
+        updateRefillPlan(deviceHWID, currentMetering, daysReach, fillLevelPercent);
+
+        // schedule additional refresh after next metering
+        if (nextMetering != null) {
+            scheduleRefresh(deviceHWID, currentMetering, nextMetering);
+        }
+    }
+
+    /**
+     * @return state of the fill level quantity, reused while quantity and unit are unchanged
+     */
+    private State getQuantityState(int quantity, String quantityUnit) {
+        boolean litre = "L".equals(quantityUnit);
+        State state = quantityState;
+        if (state == null || quantity != lastQuantity || litre != lastQuantityLitre) {
+            state = litre ? new QuantityType<>(quantity, Units.LITRE) : new QuantityType<>(quantity, SIUnits.KILOGRAM);
+            quantityState = state;
+            lastQuantity = quantity;
+            lastQuantityLitre = litre;
+        }
+        return state;
+    }
+
+    private void updateRefillPlan(String deviceHWID, @Nullable Instant currentMetering, int daysReach,
+            int fillLevelPercent) {
+        ThingUID bridgeUID = getThing().getBridgeUID();
+        if (bridgeUID == null) {
+            return;
+        }
+        OilFoxRefillPlanner.Refill last = refill;
+        if (last != null && last.daysReach() == daysReach && last.fillLevelPercent() == fillLevelPercent
+                && Objects.equals(currentMetering, refillMetering)) {
+            return; // same metering, reorder date unchanged
+        }
+        if (daysReach == OilFoxDeviceStore.MISSING || fillLevelPercent == OilFoxDeviceStore.MISSING) {
+            // no projection without days reach, e.g. for a new device
+            refillPlanner.remove(bridgeUID.getAsString(), deviceHWID);
+            refill = null;
+        } else {
+            LocalDate reorderDate = OilFoxRefillPlanner.getReorderDate(currentMetering, daysReach, fillLevelPercent,
+                    reorderLevel);
+            logger.debug("onOilFoxRefresh(): hwid {}: reorder date {}", deviceHWID, reorderDate);
+            refill = new OilFoxRefillPlanner.Refill(bridgeUID.getAsString(), deviceHWID, reorderDate, daysReach,
+                    fillLevelPercent);
+            refillPlanner.update(refill);
+        }
+        refillMetering = currentMetering;
+        OilFoxBridgeHandler bridgeHandler = getBridgeHandler();
+        if (bridgeHandler != null) {
+            bridgeHandler.refillPlanChanged();
+        }
+    }
+
+    private void removeFromRefillPlan() {
+        ThingUID bridgeUID = getThing().getBridgeUID();
+        String hwid = getHWID();
+        if (bridgeUID != null && hwid != null) {
+            refillPlanner.remove(bridgeUID.getAsString(), hwid);
+        }
+    }
+
+    /**
+     * Last metering time of a channel, parsed and converted to a state only when it changes.
+     */
+    private class MeteringTime {
+        private @Nullable String text;
+        private @Nullable Instant time;
+        private State state = UnDefType.UNDEF;
+
+        /**
+         * @return metering time, null if it cannot be parsed; the state is then UNDEF
+         */
+        @Nullable
+        Instant parse(String deviceHWID, String meteringAt) {
+            if (!meteringAt.equals(text)) {
+                text = meteringAt;
+                try {
+                    // milliseconds and offset vary with the API version
+                    Instant parsed = ZonedDateTime.parse(meteringAt).toInstant();
+                    time = parsed;
+                    state = new DateTimeType(parsed);
+                } catch (DateTimeParseException e) {
+                    logger.warn("onOilFoxRefresh(): hwid {}: invalid metering time '{}' from API", deviceHWID,
+                            meteringAt);
+                    time = null;
+                    state = UnDefType.UNDEF;
                 }
-            } else {
-                logger.warn("onOilFoxRefresh(): hwid {}: fill level quantity missing from API", deviceHWID);
-                this.updateState(OilFoxBindingConstants.CHANNEL_FILL_LEVEL_QUANTITY, UnDefType.UNDEF);
             }
+            return time;
+        }
 
-            updateStatus(ThingStatus.ONLINE);
+        State getState() {
+            return state;
+        }
+    }
 
-            // schedule additional refresh to time 5 minutes after next metering
-            if (nextMeteringAt != null) {
-                // miliseconds are optional from API
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss[.SSS]'Z'")
-                        .withZone(ZoneId.of("UTC"));
-                ZonedDateTime dateTimeWithZoneOffset = ZonedDateTime.parse(nextMeteringAt, formatter);
-                LocalDateTime nextDeviceRefresh = LocalDateTime.ofInstant(dateTimeWithZoneOffset.toInstant(),
-                        ZoneId.systemDefault());
-                logger.debug("onOilFoxRefresh(): hwid {}: device metering in: last {} minutes, next {} minutes",
-                        deviceHWID, MINUTES.between(LocalDateTime.now(), lastDeviceRefresh),
-                        MINUTES.between(LocalDateTime.now(), nextDeviceRefresh));
-
-                // calculate next additional refresh schedule, add 5 minutes to be save to get new metering
-                long nextInMinutes = MINUTES.between(LocalDateTime.now(), nextDeviceRefresh) + 5;
-                ScheduledFuture<?> localDeviceRefreshJob = this.deviceRefreshJob; // prevent race condition
-                if (localDeviceRefreshJob != null) {
-                    // check if metering time has not changed
-                    if (MINUTES.between(lastDeviceRefresh, nextDeviceRefresh) == 0) {
-                        logger.debug(
-                                "onOilFoxRefresh(): hwid {}: device metering time unchanged, keep refresh schedule in {} minutes",
-                                deviceHWID, nextInMinutes);
-                        return;
-                    }
-                    // cleanup invalid additional refresh schedule after manual metering
-                    localDeviceRefreshJob.cancel(false); // false = does not cancel current running schedule
-                }
+    /**
+     * Channel UIDs of the device, created once per handler instead of on every state update.
+     */
+    private record ChannelTable(ChannelUID validationError, ChannelUID currentMeteringAt, ChannelUID nextMeteringAt,
+            ChannelUID daysReach, ChannelUID batteryLevel, ChannelUID fillLevelPercent, ChannelUID fillLevelQuantity,
+            ChannelUID quantityUnit, ChannelUID quantityAlert, ChannelUID percentAlert, ChannelUID daysReachAlert) {
+
+        static ChannelTable of(ThingUID thingUID) {
+            return new ChannelTable(new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_VALIDATION_ERROR),
+                    new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_CURRENT_METERING_AT),
+                    new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_NEXT_METERING_AT),
+                    new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_DAYS_REACH),
+                    new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_BATTERY_LEVEL),
+                    new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_FILL_LEVEL_PERCENT),
+                    new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_FILL_LEVEL_QUANTITY),
+                    new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_QUANTITY_UNIT),
+                    new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_QUANTITY_ALERT),
+                    new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_PERCENT_ALERT),
+                    new ChannelUID(thingUID, OilFoxBindingConstants.CHANNEL_DAYS_REACH_ALERT));
+        }
+    }
 
-                // add next additional refresh schedule
-                logger.debug("onOilFoxRefresh(): hwid {}: add additional refresh schedule in {} minutes", deviceHWID,
-                        nextInMinutes);
-                deviceRefreshJob = scheduler.schedule(() -> {
-                    handleCommand(null, RefreshType.REFRESH);
-                }, nextInMinutes, TimeUnit.MINUTES);
-                lastDeviceRefresh = nextDeviceRefresh;
+    /**
+     * Schedule the additional refresh for the next metering. In adaptive mode the first refresh is sent shortly before
+     * the learned publication delay, followed by polls on a backoff schedule until the new metering is published.
+     */
+    private void scheduleRefresh(String deviceHWID, @Nullable Instant currentMetering, Instant nextMetering) {
+        Instant now = serverNow(); // metering times are server times
+        Instant awaited = awaitedMetering;
+        if (awaited != null && currentMetering != null && !currentMetering.isBefore(awaited)) {
+            // awaited metering is published, stop polling
+            if (adaptiveRefresh && polling) {
+                learnPublicationDelay(deviceHWID, Duration.between(currentMetering, now).getSeconds());
             }
+            cancelDeviceRefreshJob();
+            awaitedMetering = null;
+        }
+        // check if metering time has not changed
+        if (nextMetering.equals(awaitedMetering)) {
+            logger.debug("onOilFoxRefresh(): hwid {}: device metering time unchanged, keep refresh schedule",
+                    deviceHWID);
             return;
         }
+        logger.debug("onOilFoxRefresh(): hwid {}: device metering in: next {} minutes", deviceHWID,
+                Duration.between(now, nextMetering).toMinutes());
+        // cleanup invalid additional refresh schedule after manual metering
+        cancelDeviceRefreshJob();
+
+        // add next additional refresh schedule
+        long delay = adaptiveRefresh ? Math.max(MIN_PUBLICATION_DELAY, publicationDelay - MIN_PUBLICATION_DELAY)
+                : DEFAULT_PUBLICATION_DELAY;
+        long nextInSeconds = Duration.between(now, nextMetering).getSeconds() + delay;
+        logger.debug("onOilFoxRefresh(): hwid {}: add additional refresh schedule in {} minutes", deviceHWID,
+                nextInSeconds / 60);
+        awaitedMetering = nextMetering;
+        polling = false;
+        followUpStep = 0;
+        deviceRefreshJob = scheduler.schedule(this::refreshAfterMetering, nextInSeconds, TimeUnit.SECONDS);
+    }
 
-        // Oilfox device HWID not found in API response
-        updateStatus(ThingStatus.OFFLINE);
+    private synchronized void refreshAfterMetering() {
+        if (disposed) {
+            return;
+        }
+        polling = true;
+        OilFoxBridgeHandler bridgeHandler = getBridgeHandler();
+        String hwid = getHWID();
+        if (bridgeHandler != null && hwid != null) {
+            bridgeHandler.requestRefresh(hwid); // granted by urgency
+        } else {
+            logger.error("refreshAfterMetering(): hwid {}: bridge handler not found", hwid);
+        }
+        if (adaptiveRefresh && followUpStep < FOLLOW_UP_BACKOFF.length) {
+            // poll again, if the new metering is not published yet; cancelled when it arrives
+            long minutes = FOLLOW_UP_BACKOFF[followUpStep++];
+            logger.debug("refreshAfterMetering(): hwid {}: follow-up refresh in {} minutes", getHWID(), minutes);
+            deviceRefreshJob = scheduler.schedule(this::refreshAfterMetering, minutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * @return current time of the OilFox cloud, local time if the bridge is not available
+     */
+    private Instant serverNow() {
+        OilFoxBridgeHandler bridgeHandler = getBridgeHandler();
+        return (bridgeHandler != null) ? bridgeHandler.serverNow() : Instant.now();
+    }
+
+    private @Nullable OilFoxBridgeHandler getBridgeHandler() {
+        Bridge bridge = this.getBridge(); // prevent race condition
+        ThingHandler handler = (bridge == null) ? null : bridge.getHandler();
+        return (handler instanceof OilFoxBridgeHandler bridgeHandler) ? bridgeHandler : null;
+    }
+
+    private void learnPublicationDelay(String deviceHWID, long observed) {
+        if (observed > MAX_PUBLICATION_DELAY) {
+            return; // metering published by a regular refresh, not by polling
+        }
+        // moving average, a single late publication does not delay the next polls much
+        publicationDelay = Math.max(MIN_PUBLICATION_DELAY, (3 * publicationDelay + observed) / 4);
+        logger.debug("learnPublicationDelay(): hwid {}: metering published after {} s, publication delay now {} s",
+                deviceHWID, observed, publicationDelay);
+    }
+
+    /**
+     * @param mayInterrupt true to interrupt a running refresh request, used on dispose
+     */
+    /**
+     * Cancel the additional refresh schedule. A running job is not interrupted: it runs on the scheduler shared with
+     * other things, and it is synchronized with dispose and returns once the handler is disposed.
+     */
+    private void cancelDeviceRefreshJob() {
+        ScheduledFuture<?> localDeviceRefreshJob = this.deviceRefreshJob; // prevent race condition
+        if (localDeviceRefreshJob != null) {
+            localDeviceRefreshJob.cancel(false);
+            this.deviceRefreshJob = null;
+        }
     }
 }
@@ -16,7 +16,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.thing.ThingUID;
 
-import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 
 /**
  *
@@ -27,7 +27,7 @@ import com.google.gson.JsonArray;
 @NonNullByDefault
 public interface OilFoxStatusListener {
     /**
-     * This method is called whenever an OilFox is removed.
+     * This method is called whenever an OilFox is removed, or is missing in the response of the OilFox API.
      *
      * @param bridge The bridge the removed OilFox was connected to.
      * @param hwid The hardware id of the OilFox device which is removed.
@@ -51,9 +51,10 @@ public interface OilFoxStatusListener {
     String getHWID();
 
     /**
-     * This method is called to refresh the channels of OilFox device
+     * This method is called to refresh the channels of OilFox device. It is called asynchronously and only with
+     * the values of the device with the hardware ID of this listener.
      *
-     * @param devices a array of all device values from the OilFox API
+     * @param device the device values from the OilFox API
      */
-    void onOilFoxRefresh(JsonArray devices);
+    void onOilFoxRefresh(JsonObject device);
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+import org.openhab.binding.oilfox.handler.OilFoxBridgeHandler;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingRegistry;
+import org.openhab.core.thing.binding.ThingHandler;
+
+/**
+ * The {@link OilFoxAccounts} finds the initialized OilFox accounts for the services of the binding, which are not
+ * thing handlers themselves, e.g. the console commands.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxAccounts {
+
+    private OilFoxAccounts() {
+    }
+
+    /**
+     * @return bridge handlers of all OilFox accounts with a handler
+     */
+    public static List<OilFoxBridgeHandler> getBridgeHandlers(ThingRegistry thingRegistry) {
+        List<OilFoxBridgeHandler> handlers = new ArrayList<>();
+        for (Thing thing : thingRegistry.getAll()) {
+            if (OilFoxBindingConstants.THING_TYPE_BRIDGE.equals(thing.getThingTypeUID())) {
+                ThingHandler handler = thing.getHandler();
+                if (handler instanceof OilFoxBridgeHandler bridgeHandler) {
+                    handlers.add(bridgeHandler);
+                }
+            }
+        }
+        return handlers;
+    }
+}
@@ -31,4 +31,26 @@ public class OilFoxBridgeConfiguration {
     public @Nullable String email;
     public @Nullable String password;
     public BigDecimal refresh = new BigDecimal(6);
+    public BigDecimal discoveryCache = new BigDecimal(60);
+    public boolean adaptiveRefresh = false;
+    public BigDecimal refreshBudget = BigDecimal.ONE;
+    public boolean virtualThreads = true;
+    public boolean hedgeRequests = false;
+    public BigDecimal diagnosticsSampling = BigDecimal.ONE;
+    public @Nullable BigDecimal alertQuantity;
+    public @Nullable BigDecimal alertPercent;
+    public @Nullable BigDecimal alertDaysReach;
+    public BigDecimal alertHysteresis = new BigDecimal(5);
+    public BigDecimal reorderLevel = new BigDecimal(20);
+    public BigDecimal refillHorizon = new BigDecimal(14);
+    public @Nullable String mqttHost;
+    public @Nullable BigDecimal mqttPort;
+    public boolean mqttSecure = false;
+    public @Nullable String mqttUsername;
+    public @Nullable String mqttPassword;
+    public String mqttTopic = "oilfox";
+    public @Nullable String fleetToken;
+    public @Nullable String recordFile;
+    public @Nullable String replayFile;
+    public BigDecimal replaySpeed = BigDecimal.ONE;
 }
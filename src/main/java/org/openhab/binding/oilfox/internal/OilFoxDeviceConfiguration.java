@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.oilfox.internal;
 
+import java.math.BigDecimal;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -25,4 +27,7 @@ import org.eclipse.jdt.annotation.Nullable;
 @NonNullByDefault
 public class OilFoxDeviceConfiguration {
     public @Nullable String hwid;
+    public @Nullable BigDecimal alertQuantity;
+    public @Nullable BigDecimal alertPercent;
+    public @Nullable BigDecimal alertDaysReach;
 }
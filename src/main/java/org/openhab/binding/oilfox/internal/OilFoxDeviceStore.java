@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * The {@link OilFoxDeviceStore} keeps the last values of all devices of an account in primitive arrays, one column per
+ * value and one slot per device. A refresh overwrites the slot of a device in place, so no objects are kept per
+ * device besides its hwid. Enum values like the battery level are stored as codes into a small dictionary.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxDeviceStore {
+
+    public static final int MISSING = Integer.MIN_VALUE;
+    public static final long MISSING_TIME = Long.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Consistent copy of the values of one device.
+     */
+    public record Device(String hwid, int fillLevelQuantity, int fillLevelPercent, int daysReach,
+            @Nullable Instant currentMeteringAt, @Nullable Instant nextMeteringAt, @Nullable String quantityUnit,
+            @Nullable String batteryLevel, @Nullable String validationError) {
+    }
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>(List.of("L", "kg", "FULL", "GOOD", "MEDIUM", "WARNING",
+            "CRITICAL", "NO_METERING", "EMPTY_METERING", "NO_EXTRACTED_VALUE", "SENSOR_CONFIG",
+            "MISSING_STORAGE_CONFIG", "INVALID_STORAGE_CONFIG", "DISTANCE_TOO_SHORT", "ABOVE_STORAGE_MAX",
+            "BELOW_STORAGE_MIN"));
+
+    private String[] hwids = new String[INITIAL_CAPACITY];
+    private int[] fillLevelQuantity = new int[INITIAL_CAPACITY];
+    private int[] fillLevelPercent = new int[INITIAL_CAPACITY];
+    private int[] daysReach = new int[INITIAL_CAPACITY];
+    private long[] currentMeteringAt = new long[INITIAL_CAPACITY]; // epoch seconds
+    private long[] nextMeteringAt = new long[INITIAL_CAPACITY]; // epoch seconds
+    private byte[] quantityUnit = new byte[INITIAL_CAPACITY]; // dictionary codes, -1 if missing
+    private byte[] batteryLevel = new byte[INITIAL_CAPACITY];
+    private byte[] validationError = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Overwrite the values of a device with a device object of the API response.
+     *
+     * @param device device object of /customer-api/v1/device
+     * @return slot of the device
+     */
+    public synchronized int update(JsonObject device) {
+        int slot = slot(device.get("hwid").getAsString());
+        fillLevelQuantity[slot] = getInt(device, OilFoxBindingConstants.OILFOX_FILL_LEVEL_QUANTITY);
+        fillLevelPercent[slot] = getInt(device, OilFoxBindingConstants.OILFOX_FILL_LEVEL_PERCENT);
+        daysReach[slot] = getInt(device, OilFoxBindingConstants.OILFOX_DAYS_REACH);
+        currentMeteringAt[slot] = getTime(device, OilFoxBindingConstants.OILFOX_CURRENT_METERING_AT);
+        nextMeteringAt[slot] = getTime(device, OilFoxBindingConstants.OILFOX_NEXT_METERING_AT);
+        quantityUnit[slot] = getCode(device, OilFoxBindingConstants.OILFOX_QUANTITY_UNIT);
+        batteryLevel[slot] = getCode(device, OilFoxBindingConstants.OILFOX_BATTERY_LEVEL);
+        validationError[slot] = getCode(device, OilFoxBindingConstants.OILFOX_VALIDATION_ERROR);
+        return slot;
+    }
+
+    private int slot(String hwid) {
+        Integer slot = slots.get(hwid);
+        if (slot != null) {
+            return slot;
+        }
+        if (size == hwids.length) {
+            grow(size * 2);
+        }
+        hwids[size] = hwid;
+        slots.put(hwid, size);
+        return size++;
+    }
+
+    /**
+     * Remove the devices missing from the last API response. The last device is moved into the slot of a removed
+     * device, so the slots of the remaining devices may change.
+     *
+     * @param current hwids of the devices of the last API response
+     * @return hwids of the removed devices
+     */
+    public synchronized List<String> retain(Set<String> current) {
+        List<String> removed = new ArrayList<>();
+        for (int slot = size - 1; slot >= 0; slot--) {
+            String hwid = hwids[slot];
+            if (!current.contains(hwid)) {
+                removed.add(hwid);
+                slots.remove(hwid);
+                size--;
+                if (slot != size) {
+                    move(size, slot);
+                }
+            }
+        }
+        return removed;
+    }
+
+    private void move(int from, int to) {
+        hwids[to] = hwids[from];
+        fillLevelQuantity[to] = fillLevelQuantity[from];
+        fillLevelPercent[to] = fillLevelPercent[from];
+        daysReach[to] = daysReach[from];
+        currentMeteringAt[to] = currentMeteringAt[from];
+        nextMeteringAt[to] = nextMeteringAt[from];
+        quantityUnit[to] = quantityUnit[from];
+        batteryLevel[to] = batteryLevel[from];
+        validationError[to] = validationError[from];
+        slots.put(hwids[to], to);
+    }
+
+    private void grow(int capacity) {
+        hwids = Arrays.copyOf(hwids, capacity);
+        fillLevelQuantity = Arrays.copyOf(fillLevelQuantity, capacity);
+        fillLevelPercent = Arrays.copyOf(fillLevelPercent, capacity);
+        daysReach = Arrays.copyOf(daysReach, capacity);
+        currentMeteringAt = Arrays.copyOf(currentMeteringAt, capacity);
+        nextMeteringAt = Arrays.copyOf(nextMeteringAt, capacity);
+        quantityUnit = Arrays.copyOf(quantityUnit, capacity);
+        batteryLevel = Arrays.copyOf(batteryLevel, capacity);
+        validationError = Arrays.copyOf(validationError, capacity);
+    }
+
+    private int getInt(JsonObject device, String key) {
+        JsonElement element = device.get(key);
+        return (element == null || element.isJsonNull()) ? MISSING : element.getAsInt();
+    }
+
+    private long getTime(JsonObject device, String key) {
+        JsonElement element = device.get(key);
+        if (element == null || element.isJsonNull()) {
+            return MISSING_TIME;
+        }
+        try {
+            return Instant.parse(element.getAsString()).getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return MISSING_TIME;
+        }
+    }
+
+    private byte getCode(JsonObject device, String key) {
+        JsonElement element = device.get(key);
+        if (element == null || element.isJsonNull()) {
+            return -1;
+        }
+        String value = element.getAsString();
+        int code = dictionary.indexOf(value);
+        if (code < 0 && dictionary.size() < Byte.MAX_VALUE) { // new enum value of the API
+            dictionary.add(value);
+            code = dictionary.size() - 1;
+        }
+        return (byte) code;
+    }
+
+    /**
+     * @return copy of the values of a device, not changed by a concurrent refresh
+     */
+    public synchronized Device get(int slot) {
+        return new Device(hwids[slot], fillLevelQuantity[slot], fillLevelPercent[slot], daysReach[slot],
+                toInstant(currentMeteringAt[slot]), toInstant(nextMeteringAt[slot]), decode(quantityUnit[slot]),
+                decode(batteryLevel[slot]), decode(validationError[slot]));
+    }
+
+    /**
+     * @return copy of the values of a device, null if the device is unknown
+     */
+    public synchronized @Nullable Device get(String hwid) {
+        Integer slot = slots.get(hwid);
+        return (slot == null) ? null : get(slot);
+    }
+
+    /**
+     * @return copies of the values of all devices, in the order of their slots
+     */
+    public synchronized List<Device> getDevices() {
+        List<Device> devices = new ArrayList<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            devices.add(get(slot));
+        }
+        return devices;
+    }
+
+    /**
+     * @return slot of the device, -1 if the device is unknown
+     */
+    public synchronized int getSlot(String hwid) {
+        Integer slot = slots.get(hwid);
+        return (slot == null) ? -1 : slot;
+    }
+
+    /**
+     * @return hwids of all devices, in the order of their slots
+     */
+    public synchronized List<String> getHWIDs() {
+        return List.of(Arrays.copyOf(hwids, size));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized String getHWID(int slot) {
+        return hwids[slot];
+    }
+
+    public synchronized int getFillLevelQuantity(int slot) {
+        return fillLevelQuantity[slot];
+    }
+
+    public synchronized int getFillLevelPercent(int slot) {
+        return fillLevelPercent[slot];
+    }
+
+    public synchronized int getDaysReach(int slot) {
+        return daysReach[slot];
+    }
+
+    public synchronized @Nullable Instant getCurrentMeteringAt(int slot) {
+        return toInstant(currentMeteringAt[slot]);
+    }
+
+    public synchronized @Nullable Instant getNextMeteringAt(int slot) {
+        return toInstant(nextMeteringAt[slot]);
+    }
+
+    public synchronized @Nullable String getQuantityUnit(int slot) {
+        return decode(quantityUnit[slot]);
+    }
+
+    public synchronized @Nullable String getBatteryLevel(int slot) {
+        return decode(batteryLevel[slot]);
+    }
+
+    public synchronized @Nullable String getValidationError(int slot) {
+        return decode(validationError[slot]);
+    }
+
+    private @Nullable Instant toInstant(long epochSecond) {
+        return (epochSecond == MISSING_TIME) ? null : Instant.ofEpochSecond(epochSecond);
+    }
+
+    private @Nullable String decode(byte code) {
+        return (code < 0) ? null : dictionary.get(code);
+    }
+}
@@ -23,6 +23,8 @@ import org.openhab.binding.oilfox.handler.OilFoxBridgeHandler;
 import org.openhab.binding.oilfox.handler.OilFoxHandler;
 import org.openhab.binding.oilfox.internal.discovery.OilFoxDiscoveryService;
 import org.openhab.core.config.discovery.DiscoveryService;
+import org.openhab.core.storage.Storage;
+import org.openhab.core.storage.StorageService;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.Thing;
 import org.openhab.core.thing.ThingTypeUID;
@@ -31,7 +33,9 @@ import org.openhab.core.thing.binding.BaseThingHandlerFactory;
 import org.openhab.core.thing.binding.ThingHandler;
 import org.openhab.core.thing.binding.ThingHandlerFactory;
 import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 
 /**
  * The {@link OilFoxHandlerFactory} is responsible for creating things and thing
@@ -44,7 +48,18 @@ import org.osgi.service.component.annotations.Component;
 @NonNullByDefault
 public class OilFoxHandlerFactory extends BaseThingHandlerFactory {
 
+    private static final String SESSION_STORAGE = "org.openhab.binding.oilfox.sessions";
+
     private Map<ThingUID, ServiceRegistration<?>> discoveryServiceRegs = new HashMap<>();
+    private final OilFoxRefillPlanner refillPlanner;
+    private final Storage<String> sessionStorage;
+
+    @Activate
+    public OilFoxHandlerFactory(final @Reference OilFoxRefillPlanner refillPlanner,
+            final @Reference StorageService storageService) {
+        this.refillPlanner = refillPlanner;
+        this.sessionStorage = storageService.getStorage(SESSION_STORAGE);
+    }
 
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
@@ -55,11 +70,11 @@ public class OilFoxHandlerFactory extends BaseThingHandlerFactory {
     protected @Nullable ThingHandler createHandler(Thing thing) {
         ThingTypeUID thingTypeUID = thing.getThingTypeUID();
         if (OilFoxBindingConstants.SUPPORTED_BRIDGE_TYPES.contains(thingTypeUID)) {
-            OilFoxBridgeHandler handler = new OilFoxBridgeHandler((Bridge) thing);
+            OilFoxBridgeHandler handler = new OilFoxBridgeHandler((Bridge) thing, refillPlanner, sessionStorage);
             registerOilFoxDiscoveryService(handler);
             return handler;
         } else if (thingTypeUID.equals(OilFoxBindingConstants.THING_TYPE_OILFOX)) {
-            return new OilFoxHandler(thing);
+            return new OilFoxHandler(thing, refillPlanner);
         }
         return null;
     }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link OilFoxIOExecutor} runs the blocking network calls of a bridge, so they do not block the shared thread
+ * pool of openHAB. Virtual threads are used if the JVM supports them, otherwise a small pool of platform threads.
+ * The executor counts its tasks, so the load caused by the binding can be inspected.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxIOExecutor {
+
+    private static final int PLATFORM_THREADS = 2;
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxIOExecutor.class);
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+
+    /**
+     * @param name thread name prefix
+     * @param virtualThreads use virtual threads, if supported by the JVM
+     */
+    public OilFoxIOExecutor(String name, boolean virtualThreads) {
+        ExecutorService virtualExecutor = virtualThreads ? createVirtualExecutor(name) : null;
+        if (virtualExecutor != null) {
+            executor = virtualExecutor;
+            virtual = true;
+        } else {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(PLATFORM_THREADS, PLATFORM_THREADS, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new NamedThreadFactory(name));
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+            virtual = false;
+        }
+        logger.debug("OilFoxIOExecutor(): {}: use {} threads", name, virtual ? "virtual" : "platform");
+    }
+
+    /**
+     * Create an executor with one virtual thread per task. Uses reflection, as virtual threads are not available
+     * with all Java versions supported by openHAB.
+     */
+    private @Nullable ExecutorService createVirtualExecutor(String name) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("createVirtualExecutor(): virtual threads not supported: {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Run a task.
+     *
+     * @param task the task
+     * @return future of the task, null if the executor is shut down
+     */
+    public @Nullable Future<?> submit(Runnable task) {
+        try {
+            Future<?> future = executor.submit(() -> run(task));
+            submitted.incrementAndGet();
+            return future;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            logger.debug("submit(): task rejected, executor shut down");
+            return null;
+        }
+    }
+
+    private void run(Runnable task) {
+        int running = active.incrementAndGet();
+        peakActive.accumulateAndGet(running, Math::max);
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            busyNanos.addAndGet(System.nanoTime() - start);
+            active.decrementAndGet();
+            completed.incrementAndGet();
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Stop the executor and interrupt the running tasks.
+     */
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Wait until the running tasks have finished after a shutdown.
+     *
+     * @param timeout maximum time to wait in milliseconds
+     * @return true if all tasks have finished
+     */
+    public boolean awaitTermination(long timeout) throws InterruptedException {
+        return executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public int getPeakActive() {
+        return peakActive.get();
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getBusyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(busyNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return (virtual ? "virtual" : "platform") + " threads: active " + getActive() + ", peak " + getPeakActive()
+                + ", submitted " + getSubmitted() + ", completed " + getCompleted() + ", rejected " + getRejected()
+                + ", busy " + getBusyMillis() + " ms";
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttConnectionState;
+import org.openhab.core.io.transport.mqtt.MqttWillAndTestament;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonObject;
+
+/**
+ * The {@link OilFoxMqttRelay} publishes the values of the devices of an account to an MQTT broker, so other systems
+ * can subscribe to them instead of polling openHAB or logging in to the OilFox cloud themselves. Each device is
+ * published as a retained JSON message to {@code <topic>/<account>/<hwid>}, only if its values changed since the last
+ * successful publication; the retained message of a device removed from the account is cleared. The account state is
+ * published to {@code <topic>/<account>/status}, with a last will of {@code offline}.
+ * <p>
+ * Each relay connects with a client ID of its own and only after the relay it replaces has disconnected, so the
+ * {@code offline} state of an earlier relay never follows the {@code online} state of the current one.
+ * <p>
+ * The MQTT transport of openHAB is imported optionally, a relay is only created if {@link #isAvailable()}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxMqttRelay {
+
+    private static final int QOS = 1; // at least once, messages are retained and idempotent
+    private static final String ONLINE = "online";
+    private static final String OFFLINE = "offline";
+    private static final long STOP_TIMEOUT = 10; // seconds a relay waits for the disconnect of the one it replaces
+    private static final boolean AVAILABLE = isLoadable("org.openhab.core.io.transport.mqtt.MqttBrokerConnection");
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxMqttRelay.class);
+
+    private final MqttBrokerConnection connection;
+    private final String topic;
+    private final Map<String, OilFoxDeviceStore.Device> published = new ConcurrentHashMap<>(); // by hwid
+    private final Set<String> removed = ConcurrentHashMap.newKeySet(); // hwids with a retained message to clear
+    private volatile boolean stopped = false;
+    private final AtomicInteger messages = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * @return true if the MQTT transport of openHAB is installed
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean isLoadable(String className) {
+        try {
+            Class.forName(className, false, OilFoxMqttRelay.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param config account configuration with the broker settings
+     * @param account id of the account thing, part of the topic
+     */
+    public OilFoxMqttRelay(OilFoxBridgeConfiguration config, String account) {
+        this(new MqttBrokerConnection(String.valueOf(config.mqttHost),
+                (config.mqttPort == null) ? null : config.mqttPort.intValue(), config.mqttSecure,
+                "openhab-oilfox-" + account + "-" + UUID.randomUUID().toString().substring(0, 8)),
+                config.mqttTopic + "/" + account);
+        String username = config.mqttUsername;
+        if (username != null && !username.isBlank()) {
+            connection.setCredentials(username, config.mqttPassword);
+        }
+    }
+
+    /**
+     * @param connection connection to the broker, not started
+     * @param topic topic of the account
+     */
+    OilFoxMqttRelay(MqttBrokerConnection connection, String topic) {
+        this.connection = connection;
+        this.topic = topic;
+        connection.setQos(QOS);
+        connection.setLastWill(new MqttWillAndTestament(topic + "/status", OFFLINE.getBytes(StandardCharsets.UTF_8),
+                QOS, true));
+    }
+
+    /**
+     * Connect to the broker in the background, the connection is reestablished by the MQTT transport.
+     */
+    public void start() {
+        start(CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Connect to the broker in the background, once the relay replaced by this one has disconnected.
+     *
+     * @param previous disconnect of the replaced relay, see {@link #stop()}
+     */
+    public void start(CompletableFuture<@Nullable Void> previous) {
+        previous.completeOnTimeout(null, STOP_TIMEOUT, TimeUnit.SECONDS).thenCompose(ignored -> {
+            if (stopped) { // stopped before the previous relay disconnected
+                return CompletableFuture.completedFuture(false);
+            }
+            return connection.start();
+        }).whenComplete((connected, failure) -> {
+            if (stopped) {
+                return;
+            }
+            if (failure == null && Boolean.TRUE.equals(connected)) {
+                logger.debug("start(): {}: connected", topic);
+                publish(topic + "/status", ONLINE);
+                clearRemoved();
+            } else {
+                logger.warn("start(): {}: connection to MQTT broker failed: {}", topic,
+                        (failure == null) ? "refused" : failure.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Publish the values of a device, if they changed since the last successful publication.
+     */
+    public void publish(OilFoxDeviceStore.Device device) {
+        removed.remove(device.hwid()); // returned to the account
+        if (device.equals(published.get(device.hwid()))) {
+            return;
+        }
+        if (connection.connectionState() != MqttConnectionState.CONNECTED) {
+            logger.debug("publish(): {}: not connected, hwid {} published with the next refresh", topic,
+                    device.hwid());
+            return;
+        }
+        publish(topic + "/" + device.hwid(), toJson(device)).whenComplete((success, failure) -> {
+            if (failure == null && Boolean.TRUE.equals(success)) {
+                published.put(device.hwid(), device);
+            }
+        });
+    }
+
+    /**
+     * Clear the retained message of a device removed from the account, it is published again if it returns.
+     */
+    public void remove(String hwid) {
+        published.remove(hwid);
+        removed.add(hwid);
+        clearRemoved();
+    }
+
+    /**
+     * Publish an empty retained message for each removed device, which deletes its retained message on the broker.
+     * Devices not cleared are tried again on the next connection.
+     */
+    private void clearRemoved() {
+        if (connection.connectionState() != MqttConnectionState.CONNECTED) {
+            return;
+        }
+        for (String hwid : removed) {
+            if (published.containsKey(hwid)) { // returned in the meantime
+                removed.remove(hwid);
+                continue;
+            }
+            publish(topic + "/" + hwid, "").whenComplete((success, failure) -> {
+                if (failure == null && Boolean.TRUE.equals(success)) {
+                    removed.remove(hwid);
+                }
+            });
+        }
+    }
+
+    private CompletableFuture<Boolean> publish(String messageTopic, String payload) {
+        return connection.publish(messageTopic, payload.getBytes(StandardCharsets.UTF_8), QOS, true)
+                .whenComplete((success, failure) -> {
+                    if (failure == null && Boolean.TRUE.equals(success)) {
+                        messages.incrementAndGet();
+                    } else {
+                        failures.incrementAndGet();
+                        logger.debug("publish(): {} failed: {}", messageTopic,
+                                (failure == null) ? "not acknowledged" : failure.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * @return compact JSON of the device values, missing values omitted
+     */
+    static String toJson(OilFoxDeviceStore.Device device) {
+        JsonObject object = new JsonObject();
+        add(object, "currentMeteringAt", device.currentMeteringAt());
+        add(object, "nextMeteringAt", device.nextMeteringAt());
+        add(object, "daysReach", device.daysReach());
+        add(object, "fillLevelPercent", device.fillLevelPercent());
+        add(object, "fillLevelQuantity", device.fillLevelQuantity());
+        add(object, "quantityUnit", device.quantityUnit());
+        add(object, "batteryLevel", device.batteryLevel());
+        add(object, "validationError", device.validationError());
+        return object.toString();
+    }
+
+    private static void add(JsonObject object, String key, @Nullable Object value) {
+        if (value != null) {
+            object.addProperty(key, value.toString());
+        }
+    }
+
+    private static void add(JsonObject object, String key, int value) {
+        if (value != OilFoxDeviceStore.MISSING) {
+            object.addProperty(key, value);
+        }
+    }
+
+    /**
+     * Publish the offline state and disconnect from the broker.
+     *
+     * @return completed when disconnected, also if the disconnect failed
+     */
+    public CompletableFuture<@Nullable Void> stop() {
+        stopped = true;
+        CompletableFuture<Boolean> offline = (connection.connectionState() == MqttConnectionState.CONNECTED)
+                ? publish(topic + "/status", OFFLINE)
+                : CompletableFuture.completedFuture(true);
+        return offline.handle((success, failure) -> connection.stop()).thenCompose(stop -> stop)
+                .<@Nullable Void> handle((success, failure) -> null);
+    }
+
+    @Override
+    public String toString() {
+        return "MQTT " + topic + " " + connection.connectionState() + ", " + messages.get() + " messages, "
+                + failures.get() + " failed";
+    }
+}
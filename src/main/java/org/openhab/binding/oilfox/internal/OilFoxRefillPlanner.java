@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.osgi.service.component.annotations.Component;
+
+/**
+ * The {@link OilFoxRefillPlanner} keeps the devices of each account in an index by their projected reorder date, the
+ * day their fill level falls below the reorder level. The index is updated with each refresh of a device, the devices
+ * of an account due within the next days are found in O(log n) plus the number of devices found.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = OilFoxRefillPlanner.class)
+public class OilFoxRefillPlanner {
+
+    /**
+     * A device with its projected reorder date.
+     */
+    public record Refill(String bridgeUID, String hwid, LocalDate reorderDate, int daysReach, int fillLevelPercent) {
+    }
+
+    private final Map<String, NavigableMap<LocalDate, Map<String, Refill>>> byBridge = new TreeMap<>(); // by date
+    private final Map<String, Refill> byDevice = new HashMap<>();
+
+    /**
+     * Calculate the reorder date of a device: the days reach is the time until the tank is empty, assuming a constant
+     * consumption the reorder level is reached earlier in proportion to the fill level.
+     *
+     * @param meteringAt time of the metering, now if unknown
+     * @param daysReach days until the tank is empty
+     * @param fillLevelPercent fill level in percent
+     * @param reorderLevel reorder level in percent
+     * @return reorder date in UTC
+     */
+    public static LocalDate getReorderDate(@Nullable Instant meteringAt, int daysReach, int fillLevelPercent,
+            int reorderLevel) {
+        long days = (fillLevelPercent <= reorderLevel || fillLevelPercent <= 0) ? 0
+                : (long) Math.floor((double) daysReach * (fillLevelPercent - reorderLevel) / fillLevelPercent);
+        Instant base = (meteringAt == null) ? Instant.now() : meteringAt;
+        return LocalDate.ofInstant(base, ZoneOffset.UTC).plusDays(days);
+    }
+
+    /**
+     * Update the reorder date of a device, called on each refresh of the device.
+     */
+    public synchronized void update(Refill refill) {
+        Refill previous = byDevice.put(key(refill.bridgeUID(), refill.hwid()), refill);
+        if (previous != null) {
+            removeFromDate(previous);
+        }
+        byBridge.computeIfAbsent(refill.bridgeUID(), bridge -> new TreeMap<>())
+                .computeIfAbsent(refill.reorderDate(), date -> new LinkedHashMap<>()).put(refill.hwid(), refill);
+    }
+
+    /**
+     * Remove a device, e.g. if its thing is removed, its values are missing or it is removed from the account.
+     */
+    public synchronized void remove(String bridgeUID, String hwid) {
+        Refill previous = byDevice.remove(key(bridgeUID, hwid));
+        if (previous != null) {
+            removeFromDate(previous);
+        }
+    }
+
+    private void removeFromDate(Refill refill) {
+        NavigableMap<LocalDate, Map<String, Refill>> byDate = byBridge.get(refill.bridgeUID());
+        if (byDate == null) {
+            return;
+        }
+        Map<String, Refill> refills = byDate.get(refill.reorderDate());
+        if (refills != null) {
+            refills.remove(refill.hwid());
+            if (refills.isEmpty()) {
+                byDate.remove(refill.reorderDate());
+            }
+        }
+        if (byDate.isEmpty()) {
+            byBridge.remove(refill.bridgeUID());
+        }
+    }
+
+    /**
+     * @param days number of days from today, 0 for today
+     * @param bridgeUID only devices of this account, all accounts if null
+     * @return devices due until the given day by reorder date, overdue devices included
+     */
+    public synchronized NavigableMap<LocalDate, List<Refill>> getDue(int days, @Nullable String bridgeUID) {
+        LocalDate until = LocalDate.now(ZoneOffset.UTC).plusDays(days);
+        NavigableMap<LocalDate, List<Refill>> due = new TreeMap<>();
+        if (bridgeUID != null) {
+            addDue(due, byBridge.get(bridgeUID), until);
+        } else {
+            for (NavigableMap<LocalDate, Map<String, Refill>> byDate : byBridge.values()) {
+                addDue(due, byDate, until);
+            }
+        }
+        return due;
+    }
+
+    private void addDue(NavigableMap<LocalDate, List<Refill>> due,
+            @Nullable NavigableMap<LocalDate, Map<String, Refill>> byDate, LocalDate until) {
+        if (byDate == null) {
+            return;
+        }
+        for (Map.Entry<LocalDate, Map<String, Refill>> entry : byDate.headMap(until, true).entrySet()) {
+            due.computeIfAbsent(entry.getKey(), date -> new ArrayList<>()).addAll(entry.getValue().values());
+        }
+    }
+
+    public synchronized int size() {
+        return byDevice.size();
+    }
+
+    private String key(String bridgeUID, String hwid) {
+        return bridgeUID + "/" + hwid;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link OilFoxRefreshAllocator} ranks the devices of an account by urgency. Additional refreshes are granted to
+ * the most urgent devices first: a tank running empty in two days needs fresh values more than a full tank.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxRefreshAllocator {
+
+    private static final int REACH_HORIZON = 60; // days, tanks with a longer reach are not urgent
+    private static final int PERCENT_HORIZON = 50; // percent, fuller tanks are not urgent
+    private static final int VALIDATION_ERROR_SCORE = 10;
+    private static final int MAX_AGE = 24; // hours
+
+    /**
+     * Urgency of a device, with the values it was scored from.
+     */
+    public record Ranking(OilFoxDeviceStore.Device device, double score) {
+        public String hwid() {
+            return device.hwid();
+        }
+    }
+
+    private OilFoxRefreshAllocator() {
+    }
+
+    /**
+     * @return devices of the store, most urgent first
+     */
+    public static List<Ranking> rank(OilFoxDeviceStore store, Instant now) {
+        List<Ranking> rankings = new ArrayList<>();
+        for (OilFoxDeviceStore.Device device : store.getDevices()) { // consistent copies, not changed by a refresh
+            rankings.add(new Ranking(device, score(device, now)));
+        }
+        return sort(rankings);
+    }
+
+    /**
+     * @param hwids devices to rank, devices not in the store are left out
+     * @return the given devices of the store, most urgent first
+     */
+    public static List<Ranking> rank(OilFoxDeviceStore store, Collection<String> hwids, Instant now) {
+        List<Ranking> rankings = new ArrayList<>();
+        for (String hwid : hwids) {
+            OilFoxDeviceStore.Device device = store.get(hwid);
+            if (device != null) {
+                rankings.add(new Ranking(device, score(device, now)));
+            }
+        }
+        return sort(rankings);
+    }
+
+    private static List<Ranking> sort(List<Ranking> rankings) {
+        rankings.sort(Comparator.comparingDouble(Ranking::score).reversed().thenComparing(Ranking::hwid));
+        return rankings;
+    }
+
+    /**
+     * Urgency score: low days reach, low fill level, validation errors and old values raise the score.
+     */
+    static double score(OilFoxDeviceStore.Device device, Instant now) {
+        double score = 0;
+        int daysReach = device.daysReach();
+        if (daysReach != OilFoxDeviceStore.MISSING) {
+            score += Math.max(0, REACH_HORIZON - daysReach);
+        }
+        int fillLevelPercent = device.fillLevelPercent();
+        if (fillLevelPercent != OilFoxDeviceStore.MISSING) {
+            score += Math.max(0, PERCENT_HORIZON - fillLevelPercent) / 2.0;
+        }
+        if (device.validationError() != null) {
+            score += VALIDATION_ERROR_SCORE;
+        }
+        Instant currentMeteringAt = device.currentMeteringAt();
+        long age = (currentMeteringAt == null) ? MAX_AGE
+                : Math.min(MAX_AGE, Math.max(0, Duration.between(currentMeteringAt, now).toHours()));
+        score += age / 2.0;
+        return score;
+    }
+}
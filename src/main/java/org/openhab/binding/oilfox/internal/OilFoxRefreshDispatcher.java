@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link OilFoxRefreshDispatcher} delivers refresh results to the status listeners of a bridge. Every listener
+ * has its own queue, drained by a small thread pool, so a slow or failing listener does not delay or break the
+ * updates of the other devices, while the updates of one listener are delivered one after the other in the order of
+ * the refreshes. At most one task per listener is waiting in the pool, the pool queue is bounded by the number of
+ * listeners. The queue of a listener is removed after its last update once the listener is unregistered or its device
+ * is removed from the account.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxRefreshDispatcher {
+
+    private static final int THREADS = 2;
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxRefreshDispatcher.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>(); // by listener name
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong slowestNanos = new AtomicLong();
+
+    public OilFoxRefreshDispatcher(String name) {
+        executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Deliver an update to one listener asynchronously, after the updates dispatched to it before.
+     *
+     * @param name name of the listener, e.g. the hwid
+     * @param update the update, exceptions are logged and do not affect other updates
+     */
+    public void dispatch(String name, Runnable update) {
+        if (executor.isShutdown()) {
+            logger.debug("dispatch(): {}: dispatcher shut down, update dropped", name);
+            return;
+        }
+        Lane lane = lanes.compute(name, (key, current) -> {
+            Lane added = (current != null) ? current : new Lane(key);
+            added.updates.add(update); // inside compute, so a retired lane is not removed with this update
+            added.retired = false;
+            return added;
+        });
+        lane.schedule();
+    }
+
+    /**
+     * Remove the queue of a listener once the updates dispatched to it before are delivered.
+     *
+     * @param name name of the listener, e.g. the hwid
+     */
+    public void remove(String name) {
+        Lane lane = lanes.get(name);
+        if (lane != null) {
+            lane.retired = true;
+            lane.removeIfIdle();
+        }
+    }
+
+    public int getLanes() {
+        return lanes.size();
+    }
+
+    /**
+     * The pending updates of one listener, drained by at most one task at a time.
+     */
+    private class Lane implements Runnable {
+        private final String name;
+        private final Queue<Runnable> updates = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean retired;
+
+        private Lane(String name) {
+            this.name = name;
+        }
+
+        private void removeIfIdle() {
+            lanes.computeIfPresent(name,
+                    (key, lane) -> (lane == this && retired && updates.isEmpty() && !scheduled.get()) ? null : lane);
+        }
+
+        private void schedule() {
+            if (!updates.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    logger.debug("schedule(): {}: dispatcher shut down, {} updates dropped", name, updates.size());
+                    updates.clear();
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            Runnable update;
+            while (!Thread.currentThread().isInterrupted() && (update = updates.poll()) != null) {
+                deliver(name, update);
+            }
+            scheduled.set(false);
+            if (retired) {
+                removeIfIdle();
+            }
+            // an update added after the last poll found the lane still scheduled
+            schedule();
+        }
+    }
+
+    private void deliver(String name, Runnable update) {
+        long start = System.nanoTime();
+        try {
+            update.run();
+            delivered.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            logger.error("deliver(): {}: update failed: {}", name, e.getMessage(), e);
+        } finally {
+            long nanos = System.nanoTime() - start;
+            totalNanos.addAndGet(nanos);
+            slowestNanos.accumulateAndGet(nanos, Math::max);
+            logger.trace("deliver(): {}: update took {} ms", name, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Stop the executor and interrupt the running tasks.
+     */
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Wait until the running tasks have finished after a shutdown.
+     *
+     * @param timeout maximum time to wait in milliseconds
+     * @return true if all tasks have finished
+     */
+    public boolean awaitTermination(long timeout) throws InterruptedException {
+        return executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public int getQueued() {
+        return lanes.values().stream().mapToInt(lane -> lane.updates.size()).sum();
+    }
+
+    public long getSlowestMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowestNanos.get());
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "dispatched " + getDelivered() + ", failed " + getFailed() + ", queued " + getQueued() + ", total "
+                + getTotalMillis() + " ms, slowest " + getSlowestMillis() + " ms";
+    }
+}
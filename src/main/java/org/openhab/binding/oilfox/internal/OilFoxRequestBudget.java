@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link OilFoxRequestBudget} limits the number of device refreshes within a sliding time window.
+ * Fair Use Policy: "Getting the status of all of your device every hour is considered to be of fair use and no rate
+ * limiting is applied."
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxRequestBudget {
+
+    private final int limit;
+    private final Duration window;
+    private final Deque<Instant> requests = new ArrayDeque<>();
+
+    /**
+     * @param limit number of requests allowed within the window
+     * @param window length of the sliding window
+     */
+    public OilFoxRequestBudget(int limit, Duration window) {
+        this.limit = limit;
+        this.window = window;
+    }
+
+    /**
+     * Take one request from the budget, if available.
+     *
+     * @return true if the request is within the budget
+     */
+    public synchronized boolean tryAcquire(Instant now) {
+        prune(now);
+        if (requests.size() >= limit) {
+            return false;
+        }
+        requests.addLast(now);
+        return true;
+    }
+
+    /**
+     * Record a request, which is sent regardless of the budget, e.g. a regular refresh.
+     */
+    public synchronized void record(Instant now) {
+        prune(now);
+        requests.addLast(now);
+    }
+
+    public synchronized int getRemaining(Instant now) {
+        prune(now);
+        return Math.max(0, limit - requests.size());
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return minutes until the next request is within the budget
+     */
+    public synchronized long getWaitMinutes(Instant now) {
+        prune(now);
+        if (requests.size() < limit) {
+            return 0;
+        }
+        Instant oldest = requests.peekFirst();
+        return (oldest == null) ? 0 : Math.max(0, Duration.between(now, oldest.plus(window)).toMinutes() + 1);
+    }
+
+    private void prune(Instant now) {
+        Instant oldest = requests.peekFirst();
+        while (oldest != null && !oldest.plus(window).isAfter(now)) {
+            requests.removeFirst();
+            oldest = requests.peekFirst();
+        }
+    }
+}
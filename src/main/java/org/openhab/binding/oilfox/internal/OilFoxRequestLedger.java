@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link OilFoxRequestLedger} records the requests of an account to the FoxInsights Customer API per endpoint and
+ * limits them within a sliding time window. The ledger is stored in a small file, so the limits also hold after a
+ * restart of openHAB or a reload of the account.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxRequestLedger {
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxRequestLedger.class);
+
+    private final Path file;
+    private final Duration window;
+    private final Map<String, Integer> limits;
+    private final int defaultLimit;
+    private final Map<String, Deque<Instant>> requests = new HashMap<>();
+    private boolean deleted = false;
+
+    /**
+     * @param file file to store the ledger
+     * @param window length of the sliding window
+     * @param limits number of requests allowed within the window by endpoint path
+     * @param defaultLimit number of requests allowed within the window for other endpoints
+     */
+    public OilFoxRequestLedger(Path file, Duration window, Map<String, Integer> limits, int defaultLimit) {
+        this.file = file;
+        this.window = window;
+        this.limits = limits;
+        this.defaultLimit = defaultLimit;
+        load();
+    }
+
+    /**
+     * Record a request, if it is within the limit of its endpoint.
+     *
+     * @param path endpoint path
+     * @return true if the request may be sent
+     */
+    public synchronized boolean tryAcquire(String path, Instant now) {
+        Deque<Instant> timestamps = requests.computeIfAbsent(path, p -> new ArrayDeque<>());
+        prune(timestamps, now);
+        if (timestamps.size() >= limits.getOrDefault(path, defaultLimit)) {
+            return false;
+        }
+        timestamps.addLast(now);
+        save(now);
+        return true;
+    }
+
+    /**
+     * @return number of requests within the window by endpoint path
+     */
+    public synchronized Map<String, Integer> getCounts(Instant now) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<String, Deque<Instant>> entry : requests.entrySet()) {
+            prune(entry.getValue(), now);
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+        return counts;
+    }
+
+    public int getLimit(String path) {
+        return limits.getOrDefault(path, defaultLimit);
+    }
+
+    private void prune(Deque<Instant> timestamps, Instant now) {
+        Instant oldest = timestamps.peekFirst();
+        while (oldest != null && !oldest.plus(window).isAfter(now)) {
+            timestamps.removeFirst();
+            oldest = timestamps.peekFirst();
+        }
+    }
+
+    /**
+     * Read the ledger, one request per line: epoch second and endpoint path.
+     */
+    private synchronized void load() {
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int separator = line.indexOf(' ');
+                if (separator <= 0) {
+                    continue;
+                }
+                try {
+                    Instant time = Instant.ofEpochSecond(Long.parseLong(line.substring(0, separator)));
+                    requests.computeIfAbsent(line.substring(separator + 1), p -> new ArrayDeque<>()).addLast(time);
+                } catch (NumberFormatException e) {
+                    logger.debug("load(): {}: invalid line {}", file, line);
+                }
+            }
+            logger.debug("load(): {}: {} requests", file, requests.values().stream().mapToInt(Deque::size).sum());
+        } catch (NoSuchFileException e) {
+            logger.debug("load(): {}: no ledger yet", file);
+        } catch (IOException e) {
+            logger.warn("load(): {}: ledger not readable: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the ledger file of a removed account. The limits still hold in memory, but requests still running do
+     * not write the file again.
+     */
+    public synchronized void delete() {
+        deleted = true;
+        try {
+            Files.deleteIfExists(file);
+            logger.debug("delete(): {}: ledger deleted", file);
+        } catch (IOException e) {
+            logger.warn("delete(): {}: ledger not deleted: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Write the requests within the window. Written to a temporary file first, so a crash does not leave a
+     * truncated ledger.
+     */
+    private void save(Instant now) {
+        if (deleted) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Deque<Instant>> entry : requests.entrySet()) {
+            prune(entry.getValue(), now);
+            for (Instant time : entry.getValue()) {
+                lines.add(time.getEpochSecond() + " " + entry.getKey());
+            }
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the limits still hold in memory until the next restart
+            logger.warn("save(): {}: ledger not writable: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link OilFoxRequestLimitException} is thrown if a request is not sent, because the request ledger of the
+ * account has reached the limit of the endpoint.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxRequestLimitException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OilFoxRequestLimitException(String path) {
+        super("request limit of the fair use policy reached for " + path);
+    }
+}
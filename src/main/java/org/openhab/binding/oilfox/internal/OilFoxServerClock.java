@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link OilFoxServerClock} estimates the offset of the local clock to the clock of the OilFox cloud from the
+ * Date header of the responses. The metering times reported by the API are server times, so refreshes after metering
+ * are scheduled on the server clock.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxServerClock {
+
+    private static final long MAX_LATENCY = 5000; // milliseconds, slower responses give no usable sample
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxServerClock.class);
+
+    private volatile long offset = 0; // milliseconds, server time minus local time
+    private volatile long samples = 0;
+
+    /**
+     * Take a sample from a response.
+     *
+     * @param date Date header of the response, RFC 1123 format
+     * @param requestStart local time the request was sent
+     * @param latency latency of the request in milliseconds
+     */
+    public synchronized void update(@Nullable String date, Instant requestStart, long latency) {
+        if (date == null || latency > MAX_LATENCY) {
+            return;
+        }
+        Instant serverTime;
+        try {
+            serverTime = ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            logger.debug("update(): invalid Date header {}", date);
+            return;
+        }
+        // the header has a resolution of one second and was created about half way through the request
+        long sample = serverTime.toEpochMilli() + 500 - (requestStart.toEpochMilli() + latency / 2);
+        // moving average, smooths the rounding of the header
+        offset = (samples == 0) ? sample : (3 * offset + sample) / 4;
+        samples++;
+        logger.trace("update(): sample {} ms, offset {} ms", sample, offset);
+    }
+
+    /**
+     * @return current time of the OilFox cloud
+     */
+    public Instant now() {
+        return Instant.now().plusMillis(offset);
+    }
+
+    public Duration getOffset() {
+        return Duration.ofMillis(offset);
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+}
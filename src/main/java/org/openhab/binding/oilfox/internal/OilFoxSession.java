@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.time.Instant;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link OilFoxSession} is an immutable snapshot of the login session with the FoxInsights Customer API.
+ * A new snapshot replaces the old one on login and token renewal, so readers never see half updated tokens.
+ *
+ * @param accessToken bearer access token, null if not logged in
+ * @param refreshToken token to renew the access token, null if not logged in
+ * @param accessTokenTime time the access token was issued
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public record OilFoxSession(@Nullable String accessToken, @Nullable String refreshToken, Instant accessTokenTime) {
+
+    public static final OilFoxSession NONE = new OilFoxSession(null, null, Instant.EPOCH);
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.storage.Storage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link OilFoxSessionStore} keeps the refresh token of an account in the openHAB storage, so the account resumes
+ * its session after a restart instead of logging in with email and password. The token is encrypted with AES-GCM and
+ * a key derived from the password of the account; the account UID and email are authenticated with it, so a token is
+ * only resumed with the credentials it was issued for.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxSessionStore {
+
+    private static final String KEY_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    // the password itself is kept in the thing configuration, the key binds the token to it; kept low for a fast
+    // warm start on small devices, derived once per account initialization
+    private static final int KEY_ITERATIONS = 10000;
+    private static final int KEY_BITS = 256;
+    private static final int SALT_BYTES = 16;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxSessionStore.class);
+    private final SecureRandom random = new SecureRandom();
+
+    private final Storage<String> storage;
+    private final String accountUID;
+    private final byte[] associatedData;
+    private final char[] password;
+    private byte @Nullable [] salt;
+    private @Nullable SecretKey key;
+
+    /**
+     * @param storage storage of the binding, shared by all accounts
+     * @param accountUID UID of the account, the storage key
+     * @param email email of the account
+     * @param password password of the account, the key is derived from it
+     */
+    public OilFoxSessionStore(Storage<String> storage, String accountUID, String email, String password) {
+        this.storage = storage;
+        this.accountUID = accountUID;
+        this.associatedData = (accountUID + "\n" + email).getBytes(StandardCharsets.UTF_8);
+        this.password = password.toCharArray();
+    }
+
+    /**
+     * @return the stored refresh token, null if none is stored or it cannot be decrypted with the current credentials
+     */
+    public synchronized @Nullable String load() {
+        String stored = storage.get(accountUID);
+        if (stored == null) {
+            return null;
+        }
+        try {
+            String[] parts = stored.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("invalid format");
+            }
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] storedSalt = decoder.decode(parts[0]);
+            SecretKey storedKey = deriveKey(storedSalt);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, storedKey, new GCMParameterSpec(TAG_BITS, decoder.decode(parts[1])));
+            cipher.updateAAD(associatedData);
+            String refreshToken = new String(cipher.doFinal(decoder.decode(parts[2])), StandardCharsets.UTF_8);
+            // keep the key, the next token is stored with the same salt without deriving the key again
+            salt = storedSalt;
+            key = storedKey;
+            return refreshToken;
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            // credentials changed or storage corrupted, the next login stores a new token
+            logger.debug("load(): {}: stored session not usable: {}", accountUID, e.getMessage());
+            storage.remove(accountUID);
+            return null;
+        }
+    }
+
+    /**
+     * Encrypt and store the refresh token, replacing the one stored before.
+     */
+    public synchronized void save(String refreshToken) {
+        try {
+            byte[] localSalt = salt;
+            SecretKey localKey = key;
+            if (localSalt == null || localKey == null) {
+                localSalt = new byte[SALT_BYTES];
+                random.nextBytes(localSalt);
+                localKey = deriveKey(localSalt);
+                salt = localSalt;
+                key = localKey;
+            }
+            byte[] iv = new byte[IV_BYTES]; // never reused with the same key
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, localKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(associatedData);
+            byte[] encrypted = cipher.doFinal(refreshToken.getBytes(StandardCharsets.UTF_8));
+            Base64.Encoder encoder = Base64.getEncoder();
+            storage.put(accountUID, encoder.encodeToString(localSalt) + ":" + encoder.encodeToString(iv) + ":"
+                    + encoder.encodeToString(encrypted));
+        } catch (GeneralSecurityException e) {
+            logger.warn("save(): {}: session not stored: {}", accountUID, e.getMessage());
+        }
+    }
+
+    private SecretKey deriveKey(byte[] keySalt) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(password, keySalt, KEY_ITERATIONS, KEY_BITS);
+        try {
+            byte[] encoded = SecretKeyFactory.getInstance(KEY_ALGORITHM).generateSecret(spec).getEncoded();
+            return new SecretKeySpec(encoded, "AES");
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.StringType;
+
+/**
+ * The {@link OilFoxStates} keeps shared, immutable channel states for the values repeated on every refresh of every
+ * device, so a refresh does not create new state objects for them: small numbers like the fill level percentage and
+ * days reach, and the enum values of battery level, quantity unit and validation error.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxStates {
+
+    private static final int MAX_CACHED_NUMBER = 1000; // covers percentages and days reach
+    private static final int MAX_CACHED_STRINGS = 64; // enum values of the API, a few dozen
+
+    private static final DecimalType[] NUMBERS = new DecimalType[MAX_CACHED_NUMBER + 1];
+    private static final Map<String, StringType> STRINGS = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 0; i <= MAX_CACHED_NUMBER; i++) {
+            NUMBERS[i] = new DecimalType(i);
+        }
+    }
+
+    private OilFoxStates() {
+    }
+
+    /**
+     * @return shared state for numbers from 0 to 1000, otherwise a new state
+     */
+    public static DecimalType decimal(int value) {
+        return (value >= 0 && value <= MAX_CACHED_NUMBER) ? NUMBERS[value] : new DecimalType(value);
+    }
+
+    /**
+     * @param value enum value of the API
+     * @return shared state for the value, a new state if unexpectedly many different values were seen
+     */
+    public static StringType string(String value) {
+        StringType state = STRINGS.get(value);
+        if (state == null) {
+            state = new StringType(value);
+            if (STRINGS.size() < MAX_CACHED_STRINGS) {
+                STRINGS.putIfAbsent(value, state);
+            }
+        }
+        return state;
+    }
+}
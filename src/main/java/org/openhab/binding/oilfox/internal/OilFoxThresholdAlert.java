@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+
+/**
+ * The {@link OilFoxThresholdAlert} class keeps the state of one threshold alert of an OilFox device.
+ * An alert is raised once when the value falls below the threshold and cleared once when the value
+ * rises above the threshold plus hysteresis, so a trigger channel only fires on state changes.
+ * The hysteresis is a percentage of the threshold, rounded up to whole units of the value, as all values of the API
+ * are integers: 10 percent of a threshold of 5 days clear the alert above 6 days.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxThresholdAlert {
+
+    private static final BigDecimal HUNDRED = new BigDecimal(100);
+
+    private final boolean enabled;
+    private final double threshold; // compared as double, so a check does not create a BigDecimal per value
+    private final double clearLevel; // threshold plus hysteresis in whole units
+    private boolean active = false;
+
+    /**
+     * @param threshold alert threshold, alert disabled if null
+     * @param hysteresis percentage of the threshold the value must rise above the threshold to clear the alert,
+     *            rounded up to whole units
+     */
+    public OilFoxThresholdAlert(@Nullable BigDecimal threshold, BigDecimal hysteresis) {
+        this.enabled = threshold != null;
+        this.threshold = (threshold == null) ? 0 : threshold.doubleValue();
+        this.clearLevel = (threshold == null) ? 0
+                : threshold.add(threshold.abs().multiply(hysteresis).divide(HUNDRED, 0, RoundingMode.CEILING))
+                        .doubleValue();
+    }
+
+    /**
+     * Check a new value against the threshold.
+     *
+     * @param value the new value, not called if the value is not provided by the API
+     * @return trigger event {@link OilFoxBindingConstants#EVENT_LOW} or {@link OilFoxBindingConstants#EVENT_NORMAL}
+     *         if the alert state changed, otherwise null
+     */
+    public @Nullable String check(long value) {
+        if (!enabled) {
+            return null;
+        }
+        if (!active && value < threshold) {
+            active = true;
+            return OilFoxBindingConstants.EVENT_LOW;
+        }
+        if (active && value > clearLevel) {
+            active = false;
+            return OilFoxBindingConstants.EVENT_NORMAL;
+        }
+        return null;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+}
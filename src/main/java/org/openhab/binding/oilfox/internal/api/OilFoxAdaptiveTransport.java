@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link OilFoxAdaptiveTransport} sends requests to one of several hosts of the FoxInsights Customer API. It keeps
+ * the latencies per host and endpoint and
+ * <ul>
+ * <li>sends each request to the host with the best recent latency, and a GET request to the next host if it
+ * fails,</li>
+ * <li>sets the timeouts from the latency percentiles instead of fixed values,</li>
+ * <li>optionally sends a second, hedged GET request to the next host, if the first one is slower than usual, and
+ * cancels the slower one.</li>
+ * </ul>
+ * POST requests, i.e. login and token refresh, are sent once only. Every additional attempt of a GET request needs a
+ * permit, so failover and hedging stay within the request limits of the account.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxAdaptiveTransport implements OilFoxTransport {
+
+    private static final int STATS_SIZE = 50; // requests per host and endpoint
+    private static final int MIN_SAMPLES = 10; // use fixed timeouts until enough latencies are known
+    private static final int MIN_TIMEOUT = 2000; // milliseconds
+    private static final int TIMEOUT_FACTOR = 3; // timeout as multiple of the 99th percentile
+    private static final long MIN_HEDGE_DELAY = 200; // milliseconds
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxAdaptiveTransport.class);
+
+    private final List<String> hosts;
+    private final Map<String, OilFoxHttpsTransport> transports = new ConcurrentHashMap<>();
+    private final Map<String, OilFoxLatencyStats> stats = new ConcurrentHashMap<>(); // by host and path
+    private final Executor executor;
+    private final boolean hedging;
+    private final Predicate<String> attemptPermit;
+    private final AtomicInteger hedged = new AtomicInteger();
+    private final AtomicInteger denied = new AtomicInteger();
+
+    /**
+     * @param hosts addresses of the API hosts, with optional scheme and port
+     * @param executor executor for hedged requests, with a thread per task, so a hedged request is not queued behind
+     *            the request it hedges
+     * @param hedging send a hedged second request for slow GET requests, only used with several hosts
+     * @param attemptPermit permits an additional attempt of a request by endpoint path, e.g. within the request limits
+     */
+    public OilFoxAdaptiveTransport(List<String> hosts, Executor executor, boolean hedging,
+            Predicate<String> attemptPermit) {
+        this.hosts = List.copyOf(hosts);
+        this.executor = executor;
+        this.hedging = hedging && hosts.size() > 1;
+        this.attemptPermit = attemptPermit;
+        for (String host : hosts) {
+            transports.put(host, new OilFoxHttpsTransport(host));
+        }
+    }
+
+    @Override
+    public OilFoxResponse exchange(OilFoxRequest request) throws IOException {
+        List<String> ranked = rankHosts(request.path());
+        if (!"GET".equals(request.method())) {
+            return exchange(ranked.get(0), request, null); // not repeated, e.g. a login
+        }
+        if (hedging) {
+            return exchangeHedged(request, ranked);
+        }
+        return exchangeFailover(request, ranked, true);
+    }
+
+    /**
+     * Send the request to the hosts in order, until one answers.
+     *
+     * @param first true if the first host is the first attempt of the request, which needs no permit
+     */
+    private OilFoxResponse exchangeFailover(OilFoxRequest request, List<String> ranked, boolean first)
+            throws IOException {
+        @Nullable
+        IOException failure = null;
+        for (int i = 0; i < ranked.size(); i++) {
+            String host = ranked.get(i);
+            if ((i > 0 || !first) && !permit(request)) {
+                break;
+            }
+            try {
+                return exchange(host, request, null);
+            } catch (InterruptedIOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e; // aborted, do not try other hosts
+                }
+                failure = e;
+            } catch (IOException e) {
+                failure = e;
+            }
+            logger.debug("exchangeFailover(): {}{} failed: {}", host, request.path(), String.valueOf(failure));
+        }
+        throw (failure != null) ? failure : new IOException("no API host configured");
+    }
+
+    /**
+     * @return true if an additional attempt of the request may be sent
+     */
+    private boolean permit(OilFoxRequest request) {
+        if (attemptPermit.test(request.path())) {
+            return true;
+        }
+        denied.incrementAndGet();
+        logger.debug("permit(): {}: request limit reached, no further attempt", request.path());
+        return false;
+    }
+
+    /**
+     * Send the request to the best host. If it does not answer within its usual latency, send the same request to
+     * the next host, use the first response and cancel the other request.
+     */
+    private OilFoxResponse exchangeHedged(OilFoxRequest request, List<String> ranked) throws IOException {
+        String primaryHost = ranked.get(0);
+        CompletableFuture<OilFoxResponse> primary = send(primaryHost, request);
+        try {
+            return primary.get(getHedgeDelay(primaryHost, request.path()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // primary is slow, continue with hedged request below
+        } catch (ExecutionException e) { // primary failed before hedge delay, try the other hosts
+            return exchangeFailover(request, ranked.subList(1, ranked.size()), false);
+        } catch (InterruptedException e) {
+            primary.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("request interrupted");
+        }
+        if (!permit(request)) {
+            return await(primary);
+        }
+
+        String hedgeHost = ranked.get(1);
+        hedged.incrementAndGet();
+        logger.debug("exchangeHedged(): {}{} slow, send hedged request to {}", primaryHost, request.path(), hedgeHost);
+        CompletableFuture<OilFoxResponse> hedge = send(hedgeHost, request);
+        // first response wins and cancels the other request, fails only if both requests fail
+        CompletableFuture<OilFoxResponse> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        for (CompletableFuture<OilFoxResponse> future : List.of(primary, hedge)) {
+            future.whenComplete((response, failure) -> {
+                if (failure == null) {
+                    result.complete(response);
+                } else if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(failure);
+                }
+            });
+        }
+        try {
+            return await(result);
+        } finally {
+            primary.cancel(true); // no effect on the winner, it is complete
+            hedge.cancel(true);
+        }
+    }
+
+    private OilFoxResponse await(CompletableFuture<OilFoxResponse> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("request interrupted");
+        }
+    }
+
+    /**
+     * Send a request asynchronously, cancelling the future aborts the request.
+     */
+    private CompletableFuture<OilFoxResponse> send(String host, OilFoxRequest request) {
+        CompletableFuture<OilFoxResponse> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(exchange(host, request, future));
+                } catch (IOException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new InterruptedIOException("executor shut down"));
+        }
+        return future;
+    }
+
+    private IOException unwrap(Exception e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return (cause instanceof IOException ioException) ? ioException
+                : new IOException(String.valueOf((cause == null) ? e.getMessage() : cause.getMessage()), cause);
+    }
+
+    /**
+     * Send a request to one host with timeouts from its latencies, and keep the latency.
+     *
+     * @param cancellation aborts the request when cancelled, null if the request is not cancelled
+     */
+    private OilFoxResponse exchange(String host, OilFoxRequest request,
+            @Nullable CompletableFuture<OilFoxResponse> cancellation) throws IOException {
+        OilFoxHttpsTransport transport = transports.get(host);
+        if (transport == null) {
+            throw new IOException("unknown API host " + host);
+        }
+        OilFoxLatencyStats hostStats = getStats(host, request.path());
+        int timeout = getTimeout(hostStats);
+        long start = System.nanoTime();
+        try {
+            int connectTimeout = Math.min(timeout, OilFoxHttpsTransport.CONNECT_TIMEOUT);
+            OilFoxResponse response = transport.exchange(request, connectTimeout, timeout, cancellation);
+            hostStats.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return response;
+        } catch (IOException e) {
+            if (cancellation == null || !cancellation.isCancelled()) { // the loser of a hedged pair is not failed
+                hostStats.add(timeout); // a failed host ranks behind the others for a while
+            }
+            throw e;
+        }
+    }
+
+    private OilFoxLatencyStats getStats(String host, String path) {
+        return stats.computeIfAbsent(host + path, key -> new OilFoxLatencyStats(STATS_SIZE));
+    }
+
+    /**
+     * @return timeout in milliseconds, a multiple of the 99th percentile once enough latencies are known
+     */
+    private int getTimeout(OilFoxLatencyStats hostStats) {
+        if (hostStats.size() < MIN_SAMPLES) {
+            return OilFoxHttpsTransport.READ_TIMEOUT;
+        }
+        long timeout = hostStats.getPercentile(99) * TIMEOUT_FACTOR;
+        return (int) Math.max(MIN_TIMEOUT, Math.min(OilFoxHttpsTransport.READ_TIMEOUT, timeout));
+    }
+
+    /**
+     * @return delay in milliseconds before a hedged request is sent: the 95th percentile of the host
+     */
+    private long getHedgeDelay(String host, String path) {
+        OilFoxLatencyStats hostStats = getStats(host, path);
+        if (hostStats.size() < MIN_SAMPLES) {
+            return OilFoxHttpsTransport.READ_TIMEOUT; // no hedging until the usual latency is known
+        }
+        return Math.max(MIN_HEDGE_DELAY, hostStats.getPercentile(95));
+    }
+
+    /**
+     * @return hosts ordered by their median latency for the endpoint, hosts without latencies first
+     */
+    private List<String> rankHosts(String path) {
+        List<String> ranked = new ArrayList<>(hosts);
+        ranked.sort(Comparator.comparingLong(host -> getStats(host, path).getPercentile(50)));
+        return ranked;
+    }
+
+    public int getHedged() {
+        return hedged.get();
+    }
+
+    /**
+     * @return number of failover and hedged attempts not sent, because the request limit was reached
+     */
+    public int getDenied() {
+        return denied.get();
+    }
+
+    @Override
+    public void close() {
+        for (OilFoxHttpsTransport transport : transports.values()) {
+            transport.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (String host : hosts) {
+            for (Map.Entry<String, OilFoxLatencyStats> entry : stats.entrySet()) {
+                if (entry.getKey().startsWith(host + "/")) {
+                    OilFoxLatencyStats hostStats = entry.getValue();
+                    builder.append(entry.getKey()).append(": p50 ").append(hostStats.getPercentile(50))
+                            .append(" ms, p95 ").append(hostStats.getPercentile(95)).append(" ms, timeout ")
+                            .append(getTimeout(hostStats)).append(" ms; ");
+                }
+            }
+        }
+        return builder.append("hedged ").append(hedged.get()).append(", attempts over limit ").append(denied.get())
+                .toString();
+    }
+}
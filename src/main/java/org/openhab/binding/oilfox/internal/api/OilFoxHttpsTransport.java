@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link OilFoxHttpsTransport} sends requests to the FoxInsights Customer API via HTTPS. An address with
+ * scheme, e.g. http://localhost:8080, connects to a local stand-in of the API instead; plain HTTP is only allowed to
+ * loopback addresses, so a typo in the address never sends the credentials unencrypted. Closing the transport aborts
+ * the requests in flight, so a dispose does not wait for the connect and read timeouts.
+ *
+ * @author Roland Moser - Initial contribution
+ * @author Thomas M. - adapted to new FoxInsights Customer API
+ */
+@NonNullByDefault
+public class OilFoxHttpsTransport implements OilFoxTransport {
+
+    static final int READ_TIMEOUT = 10000;
+    static final int CONNECT_TIMEOUT = 15000;
+
+    private final String address;
+    private final Set<HttpURLConnection> connections = ConcurrentHashMap.newKeySet(); // requests in flight
+    private volatile boolean closed = false;
+
+    public OilFoxHttpsTransport(String address) {
+        this.address = address;
+    }
+
+    @Override
+    public OilFoxResponse exchange(OilFoxRequest request) throws IOException {
+        return exchange(request, CONNECT_TIMEOUT, READ_TIMEOUT);
+    }
+
+    /**
+     * Send a request with the given timeouts.
+     *
+     * @param connectTimeout connect timeout in milliseconds
+     * @param readTimeout read timeout in milliseconds
+     */
+    public OilFoxResponse exchange(OilFoxRequest request, int connectTimeout, int readTimeout) throws IOException {
+        return exchange(request, connectTimeout, readTimeout, null);
+    }
+
+    /**
+     * Send a request with the given timeouts, which is aborted when the cancellation is cancelled, e.g. the losing
+     * request of a hedged pair.
+     *
+     * @param connectTimeout connect timeout in milliseconds
+     * @param readTimeout read timeout in milliseconds
+     * @param cancellation aborts the request when cancelled, null if the request is not cancelled
+     */
+    public OilFoxResponse exchange(OilFoxRequest request, int connectTimeout, int readTimeout,
+            @Nullable CompletableFuture<?> cancellation) throws IOException {
+        if (closed) {
+            throw new InterruptedIOException("transport closed");
+        }
+        URL url;
+        try {
+            url = new URI(getBaseURI(address) + request.path()).toURL();
+        } catch (URISyntaxException e) {
+            throw new MalformedURLException("invalid url");
+        }
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connections.add(connection);
+        if (cancellation != null) {
+            cancellation.whenComplete((result, failure) -> {
+                if (cancellation.isCancelled()) {
+                    connection.disconnect(); // closes the socket, a blocked read fails immediately
+                }
+            });
+        }
+        try {
+            if (closed) { // closed while the connection was opened
+                throw new InterruptedIOException("transport closed");
+            }
+            if (cancellation != null && cancellation.isCancelled()) {
+                throw new InterruptedIOException("request cancelled");
+            }
+            connection.setReadTimeout(readTimeout);
+            connection.setConnectTimeout(connectTimeout);
+            connection.setRequestProperty("Content-Type", request.contentType());
+            connection.setDoInput(true);
+            @Nullable
+            String accessToken = request.accessToken();
+            if (accessToken != null) {
+                connection.setRequestProperty("Authorization", "Bearer " + accessToken);
+            }
+            @Nullable
+            String body = request.body();
+            if (body != null) {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                // a streamed request is not silently sent again by the connection, when the server closes it
+                connection.setFixedLengthStreamingMode(bytes.length);
+                try (OutputStream os = connection.getOutputStream()) {
+                    os.write(bytes);
+                }
+            }
+
+            connection.connect();
+
+            int status = connection.getResponseCode();
+            String responseBody = "";
+            if (status == 200) {
+                try (InputStream is = connection.getInputStream()) {
+                    responseBody = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+            return new OilFoxResponse(status, responseBody, connection.getHeaderField("Date"));
+        } catch (IOException e) {
+            if (closed) {
+                throw new InterruptedIOException("request aborted, transport closed");
+            }
+            if (cancellation != null && cancellation.isCancelled()) {
+                throw new InterruptedIOException("request cancelled");
+            }
+            throw e;
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Check the address of an API host.
+     *
+     * @param address host name with optional scheme and port, https if no scheme is given
+     * @return base URI of the host
+     * @throws MalformedURLException if the address is invalid, or uses plain HTTP to a host other than loopback
+     */
+    public static URI getBaseURI(String address) throws MalformedURLException {
+        URI uri;
+        try {
+            uri = new URI(address.contains("://") ? address : "https://" + address);
+        } catch (URISyntaxException e) {
+            throw new MalformedURLException("invalid address " + address);
+        }
+        String scheme = String.valueOf(uri.getScheme()).toLowerCase(Locale.ROOT);
+        if ("https".equals(scheme) || ("http".equals(scheme) && isLoopback(uri.getHost()))) {
+            return uri;
+        }
+        throw new MalformedURLException("address " + address + " not allowed, plain http only to loopback addresses");
+    }
+
+    /**
+     * @return true for localhost and loopback IP addresses, host names are not resolved
+     */
+    private static boolean isLoopback(@Nullable String host) {
+        if (host == null || host.isEmpty()) {
+            return false;
+        }
+        if ("localhost".equalsIgnoreCase(host)) {
+            return true;
+        }
+        if (!host.startsWith("[") && !host.chars().allMatch(c -> c == '.' || Character.isDigit(c))) {
+            return false; // a host name, which might resolve to any address
+        }
+        try {
+            return InetAddress.getByName(host).isLoopbackAddress(); // IP literal, no lookup
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (HttpURLConnection connection : connections) {
+            connection.disconnect(); // closes the socket, a blocked read fails immediately
+        }
+    }
+}
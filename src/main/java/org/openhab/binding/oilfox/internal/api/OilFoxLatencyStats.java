@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link OilFoxLatencyStats} keeps the latencies of the most recent requests to one endpoint of one host and
+ * calculates percentiles of them.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxLatencyStats {
+
+    private final long[] latencies; // milliseconds, ring buffer
+    private long count = 0;
+
+    /**
+     * @param size number of requests kept
+     */
+    public OilFoxLatencyStats(int size) {
+        latencies = new long[size];
+    }
+
+    public synchronized void add(long latency) {
+        latencies[(int) (count % latencies.length)] = latency;
+        count++;
+    }
+
+    /**
+     * @return number of requests kept
+     */
+    public synchronized int size() {
+        return (int) Math.min(count, latencies.length);
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100
+     * @return latency in milliseconds, -1 if no requests are kept
+     */
+    public synchronized long getPercentile(double percentile) {
+        int size = size();
+        if (size == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+}
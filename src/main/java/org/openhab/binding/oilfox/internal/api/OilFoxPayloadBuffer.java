@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link OilFoxPayloadBuffer} keeps the most recent responses of the FoxInsights Customer API in memory for
+ * diagnostics, instead of writing them to the log on every request. Only every n-th response is kept and all
+ * credentials are redacted. The buffer has a fixed size, the oldest entries are overwritten.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxPayloadBuffer {
+
+    /**
+     * A redacted response kept for diagnostics.
+     */
+    public record Entry(Instant time, String method, String path, int status, long latency, String body) {
+    }
+
+    private final AtomicReferenceArray<@Nullable Entry> entries;
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong recorded = new AtomicLong();
+    private final int sampling;
+
+    /**
+     * @param size number of responses kept
+     * @param sampling keep every n-th response, 0 keeps no responses
+     */
+    public OilFoxPayloadBuffer(int size, int sampling) {
+        this.entries = new AtomicReferenceArray<>(size);
+        this.sampling = sampling;
+    }
+
+    /**
+     * Keep a response, if selected by sampling. Error responses are always kept.
+     */
+    public void add(OilFoxRequest request, OilFoxResponse response, long latency) {
+        long count = responses.getAndIncrement();
+        if (sampling <= 0 || (response.status() == 200 && count % sampling != 0)) {
+            return;
+        }
+        Entry entry = new Entry(Instant.now(), request.method(), request.path(), response.status(), latency,
+                OilFoxRedaction.redact(response.body()).toString());
+        long index = recorded.getAndIncrement();
+        entries.set((int) (index % entries.length()), entry);
+    }
+
+    /**
+     * @return kept responses, oldest first
+     */
+    public List<Entry> getEntries() {
+        long end = recorded.get();
+        long start = Math.max(0, end - entries.length());
+        List<Entry> result = new ArrayList<>();
+        for (long i = start; i < end; i++) {
+            Entry entry = entries.get((int) (i % entries.length()));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public long getResponses() {
+        return responses.get();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonObject;
+
+/**
+ * The {@link OilFoxRecordingTransport} forwards requests to another transport and appends every request and response
+ * to a log file, one JSON object per line. Credentials are redacted, so the log can be shared and replayed with
+ * {@link OilFoxReplayTransport}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxRecordingTransport implements OilFoxTransport {
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxRecordingTransport.class);
+
+    private final OilFoxTransport transport;
+    private final BufferedWriter writer;
+
+    public OilFoxRecordingTransport(OilFoxTransport transport, Path file) throws IOException {
+        this.transport = transport;
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        logger.debug("OilFoxRecordingTransport(): record API traffic to {}", file);
+    }
+
+    @Override
+    public OilFoxResponse exchange(OilFoxRequest request) throws IOException {
+        long start = System.nanoTime();
+        OilFoxResponse response = transport.exchange(request);
+        long latency = (System.nanoTime() - start) / 1000000;
+        record(request, response, latency);
+        return response;
+    }
+
+    private void record(OilFoxRequest request, OilFoxResponse response, long latency) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("time", System.currentTimeMillis());
+        entry.addProperty("latency", latency);
+        entry.addProperty("method", request.method());
+        entry.addProperty("path", request.path());
+        @Nullable
+        String body = request.body();
+        if (body != null) {
+            entry.add("request", OilFoxRedaction.redact(body));
+        }
+        entry.addProperty("status", response.status());
+        entry.addProperty("date", response.date());
+        entry.add("response", OilFoxRedaction.redact(response.body()));
+        synchronized (writer) {
+            try {
+                writer.write(entry.toString());
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                // recording must never break the communication with the API
+                logger.warn("record(): writing API traffic log failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+        transport.close();
+    }
+
+    @Override
+    public String toString() {
+        return "recording, " + transport;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * The {@link OilFoxRedaction} class removes credentials from request and response bodies, before they are written
+ * to disk or kept for diagnostics.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxRedaction {
+
+    public static final String REDACTED = "***";
+
+    private static final Set<String> SECRET_KEYS = Set.of("email", "password", "access_token", "refresh_token");
+    private static final Pattern SECRET_FORM_VALUE = Pattern.compile("((?:^|&)(?:email|password|refresh_token)=)[^&]*");
+
+    private OilFoxRedaction() {
+    }
+
+    /**
+     * Redact a request or response body.
+     *
+     * @param body JSON or form encoded body
+     * @return JSON element with all credentials replaced
+     */
+    public static JsonElement redact(String body) {
+        if (body.isBlank()) {
+            return new JsonPrimitive("");
+        }
+        try {
+            JsonElement element = JsonParser.parseString(body);
+            redact(element);
+            return element;
+        } catch (JsonParseException e) {
+            // form encoded, e.g. refresh_token=...
+            return new JsonPrimitive(SECRET_FORM_VALUE.matcher(body).replaceAll("$1" + REDACTED));
+        }
+    }
+
+    private static void redact(JsonElement element) {
+        if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                if (SECRET_KEYS.contains(entry.getKey())) {
+                    entry.setValue(new JsonPrimitive(REDACTED));
+                } else {
+                    redact(entry.getValue());
+                }
+            }
+        } else if (element.isJsonArray()) {
+            for (JsonElement child : element.getAsJsonArray()) {
+                redact(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * The {@link OilFoxReplayTransport} answers requests from a log file written by {@link OilFoxRecordingTransport},
+ * without any network access. Requests are answered with the next recorded response for the same method and path,
+ * at original timing divided by the replay speed: a response is not returned before its recorded latency has passed,
+ * nor before its recorded time relative to the first request of the log, counted from the first replayed request.
+ * So a refresh requested earlier than in the recording waits for the recorded spacing. When all responses of a path
+ * are used, the replay starts again with the first response of this path, one recording later.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxReplayTransport implements OilFoxTransport {
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxReplayTransport.class);
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final double speed;
+    private final long origin; // start of the first recorded request in epoch milliseconds, -1 if times are missing
+    private final long span; // milliseconds from the first recorded request to the last recorded response
+    private int position = 0;
+    private int cycle = 0; // times the log was replayed completely
+    private long replayStart = -1; // nano time of the first replayed request
+
+    /**
+     * @param time time the response was recorded in epoch milliseconds, -1 if not recorded
+     */
+    private record Entry(String method, String path, long time, long latency, OilFoxResponse response) {
+    }
+
+    /**
+     * @param file log file written by {@link OilFoxRecordingTransport}
+     * @param speed replay speed, 1 replays with recorded latency, 0 replays without any delay
+     */
+    public OilFoxReplayTransport(Path file, double speed) throws IOException {
+        this.speed = speed;
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                JsonObject object = JsonParser.parseString(line).getAsJsonObject();
+                JsonElement date = object.get("date");
+                JsonElement time = object.get("time");
+                JsonElement response = object.get("response");
+                String body = (response == null) ? ""
+                        : response.isJsonPrimitive() ? response.getAsString() : response.toString();
+                entries.add(new Entry(object.get("method").getAsString(), object.get("path").getAsString(),
+                        (time == null || time.isJsonNull()) ? -1 : time.getAsLong(), object.get("latency").getAsLong(),
+                        new OilFoxResponse(object.get("status").getAsInt(), body,
+                                (date == null || date.isJsonNull()) ? null : date.getAsString())));
+            } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+                throw new IOException("invalid replay log " + file + " line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Entry entry : entries) {
+            if (entry.time() < 0) { // log without times, only the latency is replayed
+                first = Long.MAX_VALUE;
+                break;
+            }
+            first = Math.min(first, entry.time() - entry.latency());
+            last = Math.max(last, entry.time());
+        }
+        origin = (first == Long.MAX_VALUE) ? -1 : first;
+        span = (origin < 0) ? 0 : last - origin;
+        logger.debug("OilFoxReplayTransport(): {} responses over {} ms loaded from {}", entries.size(), span, file);
+    }
+
+    @Override
+    public OilFoxResponse exchange(OilFoxRequest request) throws IOException {
+        long start = System.nanoTime();
+        Entry entry;
+        long due; // nano time the response is due at original timing, ignored if times are missing
+        synchronized (this) {
+            entry = next(request.method(), request.path());
+            if (entry == null) {
+                throw new IOException("no recorded response for " + request.method() + " " + request.path());
+            }
+            if (replayStart < 0) {
+                replayStart = start;
+            }
+            due = (origin < 0 || speed <= 0) ? start
+                    : replayStart + (long) (TimeUnit.MILLISECONDS.toNanos(cycle * span + entry.time() - origin) / speed);
+        }
+        if (speed > 0) {
+            long wait = Math.max(TimeUnit.MILLISECONDS.toNanos((long) (entry.latency() / speed)), due - start);
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("replay interrupted");
+            }
+        }
+        return entry.response();
+    }
+
+    /**
+     * Find the next entry for the request. Only called while holding the lock.
+     */
+    private @Nullable Entry next(String method, String path) {
+        int size = entries.size();
+        for (int i = 0; i < size; i++) {
+            int index = (position + i) % size;
+            Entry entry = entries.get(index);
+            if (entry.method().equals(method) && entry.path().equals(path)) {
+                if (position + i >= size) { // continued from the start of the log
+                    cycle++;
+                }
+                position = index + 1;
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "replay of " + entries.size() + " responses, speed " + speed;
+    }
+}
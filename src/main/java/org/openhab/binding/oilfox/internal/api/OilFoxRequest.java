@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link OilFoxRequest} is a request to the FoxInsights Customer API.
+ *
+ * @param path API path, e.g. /customer-api/v1/device
+ * @param contentType content type of the request body
+ * @param body request body, if null a GET request is sent, otherwise a POST request
+ * @param accessToken bearer access token, if null no Authorization header is sent
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public record OilFoxRequest(String path, String contentType, @Nullable String body, @Nullable String accessToken) {
+
+    public String method() {
+        return (body == null) ? "GET" : "POST";
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link OilFoxResponse} is a response of the FoxInsights Customer API.
+ *
+ * @param status HTTP response code
+ * @param body response body, empty if response code is not 200
+ * @param date value of the Date response header, null if not sent by the server
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public record OilFoxResponse(int status, String body, @Nullable String date) {
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link OilFoxTransport} sends requests to the FoxInsights Customer API.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public interface OilFoxTransport extends Closeable {
+
+    /**
+     * Send a request and wait for the response.
+     *
+     * @param request the request
+     * @return the response, also for response codes other than 200
+     * @throws IOException on communication errors
+     */
+    OilFoxResponse exchange(OilFoxRequest request) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
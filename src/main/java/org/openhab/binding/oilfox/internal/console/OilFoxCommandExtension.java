@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.console;
+
+import static java.time.temporal.ChronoUnit.MINUTES;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.oilfox.handler.OilFoxBridgeHandler;
+import org.openhab.binding.oilfox.internal.OilFoxAccounts;
+import org.openhab.binding.oilfox.internal.OilFoxDeviceStore;
+import org.openhab.binding.oilfox.internal.OilFoxMqttRelay;
+import org.openhab.binding.oilfox.internal.OilFoxRefillPlanner;
+import org.openhab.binding.oilfox.internal.OilFoxRefreshAllocator;
+import org.openhab.binding.oilfox.internal.OilFoxRefreshDispatcher;
+import org.openhab.binding.oilfox.internal.OilFoxRequestBudget;
+import org.openhab.binding.oilfox.internal.OilFoxRequestLedger;
+import org.openhab.binding.oilfox.internal.OilFoxSession;
+import org.openhab.binding.oilfox.internal.api.OilFoxPayloadBuffer;
+import org.openhab.core.io.console.Console;
+import org.openhab.core.io.console.extensions.AbstractConsoleCommandExtension;
+import org.openhab.core.io.console.extensions.ConsoleCommandExtension;
+import org.openhab.core.thing.ThingRegistry;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * The {@link OilFoxCommandExtension} is responsible for the console commands of the OilFox binding. It shows the
+ * state of the accounts without debug logging, which would write tokens and full responses to the log.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = ConsoleCommandExtension.class)
+public class OilFoxCommandExtension extends AbstractConsoleCommandExtension {
+
+    private static final String LIST = "list";
+    private static final String SHOW = "show";
+    private static final String REFRESH = "refresh";
+    private static final String BENCH = "bench";
+    private static final String PAYLOADS = "payloads";
+    private static final String RANKING = "ranking";
+    private static final String REFILLS = "refills";
+
+    private static final int REFRESH_TIMEOUT = 60; // seconds
+    private static final int BENCH_ITERATIONS = 1000;
+    private static final int REFILL_DAYS = 14;
+
+    private final ThingRegistry thingRegistry;
+    private final OilFoxRefillPlanner refillPlanner;
+
+    @Activate
+    public OilFoxCommandExtension(final @Reference ThingRegistry thingRegistry,
+            final @Reference OilFoxRefillPlanner refillPlanner) {
+        super("oilfox", "Inspect the OilFox binding.");
+        this.thingRegistry = thingRegistry;
+        this.refillPlanner = refillPlanner;
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length == 1 && LIST.equals(args[0])) {
+            list(console);
+        } else if (args.length == 2 && SHOW.equals(args[0])) {
+            show(console, args[1]);
+        } else if (args.length == 2 && REFRESH.equals(args[0])) {
+            OilFoxBridgeHandler handler = getBridgeHandler(console, args[1]);
+            if (handler != null) {
+                refresh(console, handler);
+            }
+        } else if (args.length == 2 && PAYLOADS.equals(args[0])) {
+            OilFoxBridgeHandler handler = getBridgeHandler(console, args[1]);
+            if (handler != null) {
+                payloads(console, handler);
+            }
+        } else if ((args.length == 2 || args.length == 3) && BENCH.equals(args[0])) {
+            OilFoxBridgeHandler handler = getBridgeHandler(console, args[1]);
+            if (handler != null) {
+                try {
+                    int iterations = (args.length == 3) ? Integer.parseInt(args[2]) : BENCH_ITERATIONS;
+                    if (iterations > 0) {
+                        bench(console, handler, iterations);
+                    } else {
+                        printUsage(console);
+                    }
+                } catch (NumberFormatException e) {
+                    console.println("Invalid number of iterations: " + args[2]);
+                }
+            }
+        } else if (args.length == 2 && RANKING.equals(args[0])) {
+            OilFoxBridgeHandler handler = getBridgeHandler(console, args[1]);
+            if (handler != null) {
+                ranking(console, handler);
+            }
+        } else if ((args.length == 1 || args.length == 2) && REFILLS.equals(args[0])) {
+            try {
+                refills(console, (args.length == 2) ? Integer.parseInt(args[1]) : REFILL_DAYS);
+            } catch (NumberFormatException e) {
+                console.println("Invalid number of days: " + args[1]);
+            }
+        } else {
+            printUsage(console);
+        }
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return List.of(buildCommandUsage(LIST, "list all accounts with session, request and thread state"),
+                buildCommandUsage(SHOW + " <hwid>", "show the last values of a device received from the API"),
+                buildCommandUsage(REFRESH + " <accountUID>",
+                        "refresh all devices of an account now, ignores the fair use limit of additional refreshes"),
+                buildCommandUsage(PAYLOADS + " <accountUID>",
+                        "show the recent API responses of an account, credentials removed"),
+                buildCommandUsage(BENCH + " <accountUID> [<iterations>]",
+                        "time decoding and dispatching of the last API response of an account, things not updated"),
+                buildCommandUsage(RANKING + " <accountUID>",
+                        "rank the devices of an account by urgency for additional refreshes"),
+                buildCommandUsage(REFILLS + " [<days>]",
+                        "list the devices of all accounts due for a refill within the next days, by reorder date"));
+    }
+
+    private List<OilFoxBridgeHandler> getBridgeHandlers() {
+        return OilFoxAccounts.getBridgeHandlers(thingRegistry);
+    }
+
+    private @Nullable OilFoxBridgeHandler getBridgeHandler(Console console, String uid) {
+        for (OilFoxBridgeHandler handler : getBridgeHandlers()) {
+            if (handler.getThing().getUID().getAsString().equals(uid)) {
+                return handler;
+            }
+        }
+        console.println("Account " + uid + " not found or not initialized.");
+        return null;
+    }
+
+    private void list(Console console) {
+        List<OilFoxBridgeHandler> handlers = getBridgeHandlers();
+        if (handlers.isEmpty()) {
+            console.println("No OilFox accounts.");
+            return;
+        }
+        for (OilFoxBridgeHandler handler : handlers) {
+            OilFoxSession session = handler.getSession();
+            console.println(handler.getThing().getUID().getAsString() + " (" + handler.getThing().getStatus() + ")");
+            console.println("  session:      " + ((session.accessToken() == null) ? "not logged in"
+                    : "access token age " + MINUTES.between(session.accessTokenTime(), Instant.now()) + " min"));
+            console.println("  login:        " + handler.getLoginMethod() + ", " + handler.getLoginLatency() + " ms");
+            console.println("  requests:     " + handler.getRefreshBudget().getRemaining(Instant.now()) + " of "
+                    + handler.getRefreshBudget().getLimit() + " additional refreshes left, next in "
+                    + handler.getFairUseWaitMinutes() + " min, last latency " + handler.getLastLatency() + " ms");
+            OilFoxRequestLedger ledger = handler.getRequestLedger();
+            if (ledger != null) {
+                for (Map.Entry<String, Integer> entry : ledger.getCounts(Instant.now()).entrySet()) {
+                    console.println("  last hour:    " + entry.getValue() + " of " + ledger.getLimit(entry.getKey())
+                            + " requests to " + entry.getKey());
+                }
+            }
+            console.println("  transport:    " + handler.getTransport());
+            OilFoxMqttRelay relay = handler.getMqttRelay();
+            if (relay != null) {
+                console.println("  relay:        " + relay);
+            }
+            console.println("  server clock: offset " + handler.getServerClock().getOffset().toMillis() + " ms from "
+                    + handler.getServerClock().getSamples() + " responses");
+            console.println("  devices:      " + handler.getDeviceStore().size());
+            console.println("  io threads:   " + handler.getIOExecutor());
+            console.println("  dispatcher:   " + handler.getDispatcher());
+        }
+    }
+
+    private void show(Console console, String hwid) {
+        for (OilFoxBridgeHandler handler : getBridgeHandlers()) {
+            OilFoxDeviceStore.Device device = handler.getDeviceStore().get(hwid);
+            if (device != null) {
+                console.println(handler.getThing().getUID().getAsString() + " " + hwid);
+                console.println("  currentMeteringAt: " + device.currentMeteringAt());
+                console.println("  nextMeteringAt:    " + device.nextMeteringAt());
+                console.println("  daysReach:         " + format(device.daysReach()));
+                console.println("  batteryLevel:      " + device.batteryLevel());
+                console.println("  fillLevelPercent:  " + format(device.fillLevelPercent()));
+                console.println("  fillLevelQuantity: " + format(device.fillLevelQuantity()) + " "
+                        + device.quantityUnit());
+                console.println("  validationError:   " + device.validationError());
+                return;
+            }
+        }
+        console.println("Device " + hwid + " not found in the last API responses.");
+    }
+
+    private String format(int value) {
+        return (value == OilFoxDeviceStore.MISSING) ? "null" : String.valueOf(value);
+    }
+
+    private void refresh(Console console, OilFoxBridgeHandler handler) {
+        long start = System.nanoTime();
+        Future<?> future = handler.forceRefresh();
+        if (future == null) {
+            console.println("Refresh not started, account is disposed.");
+            return;
+        }
+        try {
+            future.get(REFRESH_TIMEOUT, TimeUnit.SECONDS);
+            console.println("Refresh finished after " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                    + " ms, " + handler.getDeviceStore().size() + " devices.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            console.println("Refresh failed: " + e.getMessage());
+        }
+    }
+
+    private void payloads(Console console, OilFoxBridgeHandler handler) {
+        OilFoxPayloadBuffer buffer = handler.getPayloadBuffer();
+        List<OilFoxPayloadBuffer.Entry> entries = buffer.getEntries();
+        console.println(entries.size() + " of " + buffer.getResponses() + " responses kept");
+        for (OilFoxPayloadBuffer.Entry entry : entries) {
+            console.println(entry.time() + " " + entry.method() + " " + entry.path() + " " + entry.status() + " "
+                    + entry.latency() + " ms");
+            console.println("  " + entry.body());
+        }
+    }
+
+    private void ranking(Console console, OilFoxBridgeHandler handler) {
+        OilFoxDeviceStore store = handler.getDeviceStore();
+        OilFoxRequestBudget budget = handler.getRefreshBudget();
+        console.println(budget.getRemaining(Instant.now()) + " of " + budget.getLimit()
+                + " additional refreshes left, granted by rank");
+        int rank = 0;
+        for (OilFoxRefreshAllocator.Ranking ranking : OilFoxRefreshAllocator.rank(store, handler.serverNow())) {
+            OilFoxDeviceStore.Device device = ranking.device();
+            console.println(String.format("%3d %-16s score %5.1f, days reach %s, fill level %s %%, error %s, metering %s",
+                    rank++, ranking.hwid(), ranking.score(), format(device.daysReach()),
+                    format(device.fillLevelPercent()), device.validationError(), device.currentMeteringAt()));
+        }
+    }
+
+    private void refills(Console console, int days) {
+        Map<LocalDate, List<OilFoxRefillPlanner.Refill>> due = refillPlanner.getDue(days, null);
+        int count = 0;
+        for (Map.Entry<LocalDate, List<OilFoxRefillPlanner.Refill>> entry : due.entrySet()) {
+            console.println(entry.getKey() + ":");
+            for (OilFoxRefillPlanner.Refill refill : entry.getValue()) {
+                console.println(String.format("  %-16s days reach %4d, fill level %3d %%, account %s", refill.hwid(),
+                        refill.daysReach(), refill.fillLevelPercent(), refill.bridgeUID()));
+                count++;
+            }
+        }
+        console.println(count + " of " + refillPlanner.size() + " devices due within " + days + " days");
+    }
+
+    private void bench(Console console, OilFoxBridgeHandler handler, int iterations) {
+        String body = handler.getLastResponse();
+        if (body == null) {
+            console.println("No API response cached yet, refresh the account first.");
+            return;
+        }
+
+        // decode: parse the raw response and index the devices by hwid, as done on every refresh
+        Map<String, JsonObject> devices = Map.of();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            devices = OilFoxBridgeHandler.decodeDevices(JsonParser.parseString(body));
+        }
+        long decodeNanos = System.nanoTime() - start;
+        console.println("decode:   " + iterations + " iterations, " + body.length() + " bytes, " + devices.size()
+                + " devices, " + (decodeNanos / iterations / 1000) + " us per response");
+
+        // dispatch: deliver the devices once through a dispatcher of its own, the status listeners are not updated
+        OilFoxRefreshDispatcher dispatcher = new OilFoxRefreshDispatcher(
+                "OH-binding-" + handler.getThing().getUID().getAsString() + "-bench");
+        start = System.nanoTime();
+        for (String hwid : devices.keySet()) {
+            dispatcher.dispatch(hwid, () -> {
+            });
+        }
+        dispatcher.shutdown();
+        try {
+            if (!dispatcher.awaitTermination(TimeUnit.SECONDS.toMillis(REFRESH_TIMEOUT))) {
+                dispatcher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            dispatcher.shutdownNow();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long dispatchNanos = System.nanoTime() - start;
+        console.println("dispatch: " + dispatcher.getDelivered() + " of " + devices.size() + " devices delivered in "
+                + (dispatchNanos / 1000) + " us, without status listeners");
+        console.println("account dispatcher: " + handler.getDispatcher());
+    }
+}
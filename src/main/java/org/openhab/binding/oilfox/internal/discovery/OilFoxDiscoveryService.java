@@ -12,9 +12,6 @@
  */
 package org.openhab.binding.oilfox.internal.discovery;
 
-import java.io.IOException;
-import java.io.InterruptedIOException;
-import java.net.MalformedURLException;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
@@ -35,7 +32,7 @@ import org.osgi.framework.ServiceRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 
 /**
  *
@@ -53,8 +50,11 @@ public class OilFoxDiscoveryService extends AbstractDiscoveryService implements
 
     private OilFoxBridgeHandler oilFoxBridgeHandler;
 
+    private volatile boolean scanning = false;
+
     public OilFoxDiscoveryService(OilFoxBridgeHandler oilFoxBridgeHandler) {
-        super(OilFoxBindingConstants.SUPPORTED_DEVICE_TYPES, SEARCH_TIME);
+        // background discovery uses the device list of the regular bridge refresh
+        super(OilFoxBindingConstants.SUPPORTED_DEVICE_TYPES, SEARCH_TIME, true);
         this.oilFoxBridgeHandler = oilFoxBridgeHandler;
     }
 
@@ -71,14 +71,12 @@ public class OilFoxDiscoveryService extends AbstractDiscoveryService implements
 
     @Override
     protected void startScan() {
+        // answered from the device store, the API is only queried if the last device list is outdated
+        scanning = true;
         try {
-            oilFoxBridgeHandler.getAllDevices();
-        } catch (MalformedURLException e) {
-            logger.error("startScan(): MalformedURLException {}", e.getMessage(), e);
-        } catch (InterruptedIOException e) {
-            logger.error("startScan(): InterruptedIOException {}", e.getMessage(), e);
-        } catch (IOException e) {
-            logger.error("startScan(): IOException {}", e.getMessage(), e);
+            oilFoxBridgeHandler.discoverDevices();
+        } finally {
+            scanning = false;
         }
     }
 
@@ -105,6 +103,10 @@ public class OilFoxDiscoveryService extends AbstractDiscoveryService implements
     @Override
     public void onOilFoxAdded(ThingUID bridge, String hwid) {
         logger.debug("onOilFoxAdded(): bridge {}, hwid {}", bridge, hwid);
+        if (!scanning && !isBackgroundDiscoveryEnabled()) {
+            logger.debug("onOilFoxAdded(): background discovery disabled, ignore hwid {}", hwid);
+            return;
+        }
         String label = "Oilfox " + hwid;
 
         ThingTypeUID uid = OilFoxBindingConstants.THING_TYPE_OILFOX;
@@ -124,6 +126,6 @@ public class OilFoxDiscoveryService extends AbstractDiscoveryService implements
     }
 
     @Override
-    public void onOilFoxRefresh(JsonArray devices) { // override from OilFoxHandler.java
+    public void onOilFoxRefresh(JsonObject device) { // override from OilFoxHandler.java
     }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.jfr;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@link OilFoxChannelUpdateEvent} records the update of the channels of a device handler.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@Name("org.openhab.binding.oilfox.ChannelUpdate")
+@Label("OilFox Channel Update")
+@Description("Update of the channels of a device")
+public class OilFoxChannelUpdateEvent extends OilFoxEvent {
+
+    @Label("Hardware ID")
+    public String hwid = "";
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.jfr;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@link OilFoxDecodeEvent} records decoding the parsed device list of an API response into the devices by hwid.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@Name("org.openhab.binding.oilfox.Decode")
+@Label("OilFox Decode")
+@Description("Decoding the parsed device list response")
+public class OilFoxDecodeEvent extends OilFoxEvent {
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.jfr;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@link OilFoxDispatchEvent} records the delivery of a refresh result to the status listener of a device.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@Name("org.openhab.binding.oilfox.Dispatch")
+@Label("OilFox Dispatch")
+@Description("Delivery of a refresh result to a device")
+public class OilFoxDispatchEvent extends OilFoxEvent {
+
+    @Label("Hardware ID")
+    public String hwid = "";
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.jfr;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@link OilFoxEvent} is the base of the Java Flight Recorder events of the OilFox binding. The events are created
+ * on every refresh, but only filled and committed if a recording is enabled, so they cost nothing otherwise:
+ *
+ * <pre>
+ * event.begin();
+ * ...
+ * event.end();
+ * if (event.shouldCommit()) {
+ *     event.hwid = ...;
+ *     event.commit(bridgeUID, deviceCount);
+ * }
+ * </pre>
+ *
+ * The events are only created if {@link OilFoxFlightRecorder#isAvailable()}. Code using them must not pass them as
+ * another event type, e.g. an {@link OilFoxHttpEvent} as {@link OilFoxEvent}: the class would not be verified without
+ * the package <code>jdk.jfr</code>.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@Category({ "openHAB", "OilFox" })
+@StackTrace(false)
+public abstract class OilFoxEvent extends Event {
+
+    @Label("Account")
+    public String bridgeUID = "";
+
+    @Label("Device Count")
+    public int deviceCount;
+
+    /**
+     * Add the account to the event and commit it.
+     */
+    public void commit(String bridgeUID, int deviceCount) {
+        this.bridgeUID = bridgeUID;
+        this.deviceCount = deviceCount;
+        commit();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.jfr;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link OilFoxFlightRecorder} tells whether the Java Flight Recorder API can be used. The package
+ * <code>jdk.jfr</code> is imported optionally, as the OSGi framework may not export it. Without it the events must
+ * not be created, so this class does not refer to them.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public final class OilFoxFlightRecorder {
+
+    private static final boolean AVAILABLE = isLoadable("jdk.jfr.Event");
+
+    private OilFoxFlightRecorder() {
+    }
+
+    /**
+     * @return true if the events of the binding can be created
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean isLoadable(String className) {
+        try {
+            Class.forName(className, false, OilFoxFlightRecorder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.jfr;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@link OilFoxLoginEvent} records a login with user and password or a renewal of the access token.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@Name("org.openhab.binding.oilfox.Login")
+@Label("OilFox Login")
+@Description("Login or access token renewal with the FoxInsights Customer API")
+public class OilFoxLoginEvent extends OilFoxEvent {
+
+    @Label("Method")
+    @Description("password or token")
+    public String method = "";
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.jfr;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@link OilFoxParseEvent} records parsing the JSON body of an API response.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@Name("org.openhab.binding.oilfox.Parse")
+@Label("OilFox Parse")
+@Description("Parsing the JSON body of a response")
+public class OilFoxParseEvent extends OilFoxEvent {
+
+    @Label("Endpoint")
+    public String endpoint = "";
+
+    @Label("Response Size")
+    @Description("UTF-8 encoded body")
+    @DataAmount
+    public int bytes;
+}
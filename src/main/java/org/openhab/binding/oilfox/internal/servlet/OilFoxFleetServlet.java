@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.servlet;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.oilfox.handler.OilFoxBridgeHandler;
+import org.openhab.binding.oilfox.internal.OilFoxAccounts;
+import org.openhab.binding.oilfox.internal.OilFoxDeviceStore;
+import org.openhab.core.thing.ThingRegistry;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.http.whiteboard.propertytypes.HttpWhiteboardServletName;
+import org.osgi.service.http.whiteboard.propertytypes.HttpWhiteboardServletPattern;
+
+import com.google.gson.JsonObject;
+
+/**
+ * The {@link OilFoxFleetServlet} streams the last values of all devices of all accounts, one device per line as
+ * NDJSON or CSV. The values are read from the device store of the accounts, no request is sent to the OilFox cloud.
+ * <p>
+ * The endpoint is not covered by the openHAB authentication: an account is only served with the fleet token of its
+ * configuration as bearer token, accounts without a fleet token are never served. Without any fleet token the
+ * endpoint answers not found.
+ * <p>
+ * Parameters: {@code format} (ndjson or csv), {@code bridge} (account UID), {@code minDays} and {@code maxDays}
+ * (range of the days reach).
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = Servlet.class)
+@HttpWhiteboardServletName(OilFoxFleetServlet.SERVLET_PATH)
+@HttpWhiteboardServletPattern(OilFoxFleetServlet.SERVLET_PATH)
+public class OilFoxFleetServlet extends HttpServlet {
+
+    public static final String SERVLET_PATH = "/oilfox/fleet";
+
+    private static final long serialVersionUID = 1L;
+    private static final String CSV_HEADER = "bridge,hwid,currentMeteringAt,nextMeteringAt,daysReach,fillLevelPercent,"
+            + "fillLevelQuantity,quantityUnit,batteryLevel,validationError";
+    private static final String BEARER = "Bearer ";
+
+    private final transient ThingRegistry thingRegistry;
+
+    @Activate
+    public OilFoxFleetServlet(final @Reference ThingRegistry thingRegistry) {
+        this.thingRegistry = thingRegistry;
+    }
+
+    @Override
+    protected void doGet(@Nullable HttpServletRequest request, @Nullable HttpServletResponse response)
+            throws IOException {
+        if (request == null || response == null) {
+            return;
+        }
+        List<OilFoxBridgeHandler> handlers = new ArrayList<>();
+        boolean enabled = false;
+        String token = getBearerToken(request);
+        for (OilFoxBridgeHandler handler : OilFoxAccounts.getBridgeHandlers(thingRegistry)) {
+            String fleetToken = handler.getBridgeConfiguration().fleetToken;
+            if (fleetToken != null && !fleetToken.isBlank()) {
+                enabled = true;
+                if (token != null && MessageDigest.isEqual(fleetToken.getBytes(StandardCharsets.UTF_8),
+                        token.getBytes(StandardCharsets.UTF_8))) {
+                    handlers.add(handler);
+                }
+            }
+        }
+        if (!enabled) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "no account with a fleet token");
+            return;
+        }
+        if (handlers.isEmpty()) {
+            response.setHeader("WWW-Authenticate", "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "fleet token missing or invalid");
+            return;
+        }
+        String format = request.getParameter("format");
+        boolean csv = "csv".equals(format);
+        if (!csv && format != null && !"ndjson".equals(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "format must be ndjson or csv");
+            return;
+        }
+        String bridge = request.getParameter("bridge");
+        int minDays;
+        int maxDays;
+        try {
+            minDays = getInt(request, "minDays", Integer.MIN_VALUE);
+            maxDays = getInt(request, "maxDays", Integer.MAX_VALUE);
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "minDays and maxDays must be numbers");
+            return;
+        }
+
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter writer = response.getWriter();
+        if (csv) {
+            writer.println(CSV_HEADER);
+        }
+        for (OilFoxBridgeHandler handler : handlers) {
+            String bridgeUID = handler.getThing().getUID().getAsString();
+            if (bridge != null && !bridge.equals(bridgeUID)) {
+                continue;
+            }
+            // copy of the account, devices removed by a concurrent refresh do not shift the slots while writing
+            for (OilFoxDeviceStore.Device device : handler.getDeviceStore().getDevices()) {
+                boolean filtered = minDays != Integer.MIN_VALUE || maxDays != Integer.MAX_VALUE;
+                if (filtered && (device.daysReach() == OilFoxDeviceStore.MISSING || device.daysReach() < minDays
+                        || device.daysReach() > maxDays)) {
+                    continue;
+                }
+                writer.println(csv ? toCSV(bridgeUID, device) : toJson(bridgeUID, device));
+            }
+            writer.flush(); // stream each account, do not buffer the whole fleet
+        }
+    }
+
+    /**
+     * @return token of the Authorization header, null if there is no bearer token
+     */
+    private @Nullable String getBearerToken(HttpServletRequest request) {
+        String authorization = request.getHeader("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        return authorization.substring(BEARER.length()).trim();
+    }
+
+    private int getInt(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        return (value == null || value.isBlank()) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private String toJson(String bridgeUID, OilFoxDeviceStore.Device device) {
+        JsonObject object = new JsonObject();
+        object.addProperty("bridge", bridgeUID);
+        object.addProperty("hwid", device.hwid());
+        object.addProperty("currentMeteringAt", toString(device.currentMeteringAt()));
+        object.addProperty("nextMeteringAt", toString(device.nextMeteringAt()));
+        object.addProperty("daysReach", toNumber(device.daysReach()));
+        object.addProperty("fillLevelPercent", toNumber(device.fillLevelPercent()));
+        object.addProperty("fillLevelQuantity", toNumber(device.fillLevelQuantity()));
+        object.addProperty("quantityUnit", device.quantityUnit());
+        object.addProperty("batteryLevel", device.batteryLevel());
+        object.addProperty("validationError", device.validationError());
+        return object.toString();
+    }
+
+    private String toCSV(String bridgeUID, OilFoxDeviceStore.Device device) {
+        return String.join(",", escape(bridgeUID), escape(device.hwid()), escape(toString(device.currentMeteringAt())),
+                escape(toString(device.nextMeteringAt())), escape(toNumber(device.daysReach())),
+                escape(toNumber(device.fillLevelPercent())), escape(toNumber(device.fillLevelQuantity())),
+                escape(device.quantityUnit()), escape(device.batteryLevel()), escape(device.validationError()));
+    }
+
+    private @Nullable String toString(@Nullable Object value) {
+        return (value == null) ? null : value.toString();
+    }
+
+    private @Nullable Integer toNumber(int value) {
+        return (value == OilFoxDeviceStore.MISSING) ? null : value;
+    }
+
+    private String escape(@Nullable Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+import org.openhab.binding.oilfox.internal.OilFoxRefillPlanner;
+import org.openhab.binding.oilfox.internal.OilFoxRefreshAllocator;
+import org.openhab.binding.oilfox.internal.api.OilFoxApiSimulator;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.storage.Storage;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.thing.binding.builder.BridgeBuilder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tests of the life cycle of the {@link OilFoxBridgeHandler} against the {@link OilFoxApiSimulator}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class OilFoxBridgeHandlerTest {
+
+    private static final long TIMEOUT = 5000; // milliseconds
+
+    private @TempDir @NonNullByDefault({}) Path userData;
+    private @Nullable String previousUserData;
+    private @Mock @NonNullByDefault({}) ThingHandlerCallback callback;
+    private @Mock @NonNullByDefault({}) Storage<String> sessionStorage;
+    private @NonNullByDefault({}) OilFoxApiSimulator simulator;
+    private @NonNullByDefault({}) Bridge bridge;
+    private @NonNullByDefault({}) OilFoxBridgeHandler bridgeHandler;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        previousUserData = System.setProperty("openhab.userdata", userData.toString()); // location of the ledgers
+        simulator = new OilFoxApiSimulator(3);
+        Configuration configuration = new Configuration(
+                Map.of("address", simulator.getAddress(), "email", "test@example.com", "password", "secret",
+                        "refreshBudget", 3));
+        bridge = BridgeBuilder.create(OilFoxBindingConstants.THING_TYPE_BRIDGE, "account")
+                .withConfiguration(configuration).build();
+        bridgeHandler = new OilFoxBridgeHandler(bridge, new OilFoxRefillPlanner(), sessionStorage);
+        bridge.setHandler(bridgeHandler);
+        doAnswer(invocation -> {
+            ((Thing) invocation.getArgument(0)).setStatusInfo(invocation.getArgument(1));
+            return null;
+        }).when(callback).statusUpdated(any(), any());
+        bridgeHandler.setCallback(callback);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bridgeHandler.dispose();
+        simulator.close();
+        String localPreviousUserData = previousUserData;
+        if (localPreviousUserData == null) {
+            System.clearProperty("openhab.userdata");
+        } else {
+            System.setProperty("openhab.userdata", localPreviousUserData);
+        }
+    }
+
+    @Test
+    public void removalDeletesSessionAndLedger() throws InterruptedException {
+        Path ledger = userData.resolve("oilfox").resolve("oilfox_account_account.ledger");
+        bridgeHandler.initialize();
+        awaitRefreshes(1);
+        assertEquals(3, bridgeHandler.getDeviceStore().size());
+        assertTrue(Files.exists(ledger), "ledger " + ledger + " not written");
+
+        bridgeHandler.handleRemoval();
+
+        assertFalse(Files.exists(ledger), "ledger " + ledger + " not deleted");
+        verify(sessionStorage).remove(bridge.getUID().getAsString());
+    }
+
+    @Test
+    public void refreshGrantedAtOnceUntilBudgetUsed() throws InterruptedException {
+        bridgeHandler.initialize();
+        awaitRefreshes(1);
+        // the regular refresh is not taken from the budget of additional refreshes
+        assertEquals(3, bridgeHandler.getRefreshBudget().getRemaining(Instant.now()));
+
+        for (int device = 0; device < 3; device++) {
+            bridgeHandler.requestRefresh(OilFoxApiSimulator.getHWID(device)); // without grant window
+            awaitRefreshes(device + 2);
+        }
+        assertEquals(0, bridgeHandler.getRefreshBudget().getRemaining(Instant.now()));
+        assertTrue(bridgeHandler.getRefreshRequests().isEmpty());
+
+        // without additional refreshes left, the requests are kept for the next window
+        bridgeHandler.requestRefresh(OilFoxApiSimulator.getHWID(0));
+        bridgeHandler.requestRefresh(OilFoxApiSimulator.getHWID(2));
+        assertNull(bridgeHandler.grantRefresh());
+        assertEquals(Set.of(OilFoxApiSimulator.getHWID(0), OilFoxApiSimulator.getHWID(2)),
+                bridgeHandler.getRefreshRequests());
+        assertEquals(4, simulator.getRequests(OilFoxApiSimulator.DEVICE_PATH));
+    }
+
+    @Test
+    public void requestsRankedByUrgency() throws InterruptedException {
+        bridgeHandler.initialize();
+        awaitRefreshes(1);
+
+        // the most urgent of the requesting devices gets the next refresh, not the first request
+        makeUrgent(2);
+        List<OilFoxRefreshAllocator.Ranking> rankings = OilFoxRefreshAllocator.rank(bridgeHandler.getDeviceStore(),
+                List.of(OilFoxApiSimulator.getHWID(0), OilFoxApiSimulator.getHWID(2), "UNKNOWN"), Instant.now());
+        assertEquals(List.of(OilFoxApiSimulator.getHWID(2), OilFoxApiSimulator.getHWID(0)),
+                rankings.stream().map(OilFoxRefreshAllocator.Ranking::hwid).toList());
+    }
+
+    @Test
+    public void discoveryAnsweredFromFailedDeviceList() throws InterruptedException {
+        simulator.setErrors(1, 503);
+        bridgeHandler.initialize();
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while ((simulator.getRequests(OilFoxApiSimulator.LOGIN_PATH) == 0
+                || bridgeHandler.getIOExecutor().getActive() > 0) && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        int logins = simulator.getRequests(OilFoxApiSimulator.LOGIN_PATH);
+        assertTrue(logins > 0);
+
+        // within the discovery cache time the failed refresh answers the scans, without a login each time
+        bridgeHandler.discoverDevices();
+        bridgeHandler.discoverDevices();
+        assertEquals(logins, simulator.getRequests(OilFoxApiSimulator.LOGIN_PATH));
+        assertEquals(0, simulator.getRequests(OilFoxApiSimulator.DEVICE_PATH));
+    }
+
+    private void makeUrgent(int device) {
+        JsonObject object = new JsonObject();
+        object.addProperty("hwid", OilFoxApiSimulator.getHWID(device));
+        object.addProperty(OilFoxBindingConstants.OILFOX_DAYS_REACH, 5);
+        object.addProperty(OilFoxBindingConstants.OILFOX_FILL_LEVEL_PERCENT, 10);
+        bridgeHandler.getDeviceStore().update(object);
+    }
+
+    /**
+     * Wait until the given number of device lists was requested and the refresh has finished.
+     */
+    private void awaitRefreshes(int refreshes) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while ((simulator.getRequests(OilFoxApiSimulator.DEVICE_PATH) < refreshes
+                || bridgeHandler.getIOExecutor().getActive() > 0) && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(refreshes, simulator.getRequests(OilFoxApiSimulator.DEVICE_PATH));
+    }
+}
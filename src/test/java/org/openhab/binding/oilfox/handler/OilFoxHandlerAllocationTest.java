@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+import org.openhab.binding.oilfox.internal.OilFoxRefillPlanner;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.storage.Storage;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusInfo;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.thing.binding.builder.BridgeBuilder;
+import org.openhab.core.thing.binding.builder.ThingBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Measures the heap allocated by the {@link OilFoxHandler} to update the channels of a device with unchanged values, as
+ * on a refresh without a new metering. The channels are updated on the test thread through a stub callback, whose own
+ * allocations are measured separately and subtracted. The bytes per device are logged at debug level.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxHandlerAllocationTest {
+
+    private static final int DEVICES = 100;
+    private static final int WARMUP = 200; // refreshes before measuring, so the JIT compiles the path
+    private static final int ITERATIONS = 100;
+    // states are reused for unchanged values, a few hundred bytes of temporary objects per device remain
+    private static final long MAX_BYTES_PER_DEVICE = 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxHandlerAllocationTest.class);
+    private final OilFoxRefillPlanner refillPlanner = new OilFoxRefillPlanner();
+    private final List<OilFoxHandler> handlers = new ArrayList<>();
+    private final List<JsonObject> devices = new ArrayList<>();
+    private long stateUpdates;
+    private @NonNullByDefault({}) Bridge bridge;
+    private @NonNullByDefault({}) ThingHandlerCallback callback;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        bridge = BridgeBuilder.create(OilFoxBindingConstants.THING_TYPE_BRIDGE, "account").build();
+        bridge.setHandler(new OilFoxBridgeHandler(bridge, refillPlanner, mock(Storage.class)));
+        callback = createCallback();
+        Instant metering = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < DEVICES; i++) {
+            String hwid = String.format("ALLOC%07d", i);
+            Thing device = ThingBuilder
+                    .create(OilFoxBindingConstants.THING_TYPE_OILFOX,
+                            new ThingUID(OilFoxBindingConstants.THING_TYPE_OILFOX, bridge.getUID(), hwid))
+                    .withBridge(bridge.getUID()).withProperties(Map.of(OilFoxBindingConstants.PROPERTY_HWID, hwid))
+                    .build();
+            OilFoxHandler handler = new OilFoxHandler(device, refillPlanner);
+            device.setHandler(handler);
+            handler.setCallback(callback);
+            handlers.add(handler);
+            devices.add(device(hwid, metering, i % 100));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        handlers.forEach(OilFoxHandler::dispose);
+    }
+
+    /**
+     * @return callback without recording, which allocates only the argument array of the proxy per call
+     */
+    private ThingHandlerCallback createCallback() {
+        return (ThingHandlerCallback) Proxy.newProxyInstance(ThingHandlerCallback.class.getClassLoader(),
+                new Class<?>[] { ThingHandlerCallback.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "stateUpdated":
+                            stateUpdates++;
+                            return null;
+                        case "statusUpdated":
+                            ((Thing) args[0]).setStatusInfo((ThingStatusInfo) args[1]);
+                            return null;
+                        case "getBridge":
+                            return bridge;
+                        default:
+                            return (method.getReturnType() == boolean.class) ? Boolean.TRUE : null;
+                    }
+                });
+    }
+
+    @Test
+    public void unchangedRefreshAllocatesLittle() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported(), "allocation measurement not supported");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+
+        refresh(WARMUP);
+        assertEquals(ThingStatus.ONLINE, handlers.get(0).getThing().getStatus());
+        long updatesBefore = stateUpdates;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        refresh(ITERATIONS);
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        long calls = stateUpdates - updatesBefore;
+
+        // the same number of calls of the stub alone, to subtract its argument arrays
+        ChannelUID channel = new ChannelUID(handlers.get(0).getThing().getUID(),
+                OilFoxBindingConstants.CHANNEL_FILL_LEVEL_PERCENT);
+        DecimalType state = new DecimalType(1);
+        long callbackBefore = threads.getCurrentThreadAllocatedBytes();
+        for (long i = 0; i < calls; i++) {
+            callback.stateUpdated(channel, state);
+        }
+        long callbackAllocated = threads.getCurrentThreadAllocatedBytes() - callbackBefore;
+
+        long updates = (long) DEVICES * ITERATIONS;
+        long bytesPerDevice = Math.max(0, allocated - callbackAllocated) / updates;
+        logger.debug("unchangedRefreshAllocatesLittle(): {} device updates, {} bytes and {} ns per device, {} channel "
+                + "updates", updates, bytesPerDevice, nanos / updates, calls);
+        assertTrue(bytesPerDevice <= MAX_BYTES_PER_DEVICE, bytesPerDevice + " bytes per device");
+    }
+
+    private void refresh(int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            for (int device = 0; device < DEVICES; device++) {
+                handlers.get(device).onOilFoxRefresh(devices.get(device));
+            }
+        }
+    }
+
+    private JsonObject device(String hwid, Instant metering, int percent) {
+        JsonObject object = new JsonObject();
+        object.addProperty("hwid", hwid);
+        object.addProperty("currentMeteringAt", metering.toString());
+        object.addProperty("nextMeteringAt", metering.plus(1, ChronoUnit.DAYS).toString());
+        object.addProperty("daysReach", percent * 2);
+        object.addProperty("batteryLevel", "GOOD");
+        object.addProperty("fillLevelPercent", percent);
+        object.addProperty("fillLevelQuantity", percent * 50);
+        object.addProperty("quantityUnit", "L");
+        return object;
+    }
+}
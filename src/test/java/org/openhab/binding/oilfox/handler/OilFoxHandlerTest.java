@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+import org.openhab.binding.oilfox.internal.OilFoxRefillPlanner;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.storage.Storage;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.thing.binding.builder.BridgeBuilder;
+import org.openhab.core.thing.binding.builder.ThingBuilder;
+import org.openhab.core.types.UnDefType;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tests of the channel updates of the {@link OilFoxHandler}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class OilFoxHandlerTest {
+
+    private static final String HWID = "300A1B2C3D4E";
+
+    private @Mock @NonNullByDefault({}) ThingHandlerCallback callback;
+    private @Mock @NonNullByDefault({}) Storage<String> sessionStorage;
+
+    private final OilFoxRefillPlanner refillPlanner = new OilFoxRefillPlanner();
+    private @NonNullByDefault({}) Bridge bridge;
+    private @NonNullByDefault({}) Thing device;
+    private @NonNullByDefault({}) OilFoxHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        bridge = BridgeBuilder.create(OilFoxBindingConstants.THING_TYPE_BRIDGE, "account").build();
+        bridge.setHandler(new OilFoxBridgeHandler(bridge, refillPlanner, sessionStorage));
+        ThingUID deviceUID = new ThingUID(OilFoxBindingConstants.THING_TYPE_OILFOX, bridge.getUID(), HWID);
+        device = ThingBuilder.create(OilFoxBindingConstants.THING_TYPE_OILFOX, deviceUID).withBridge(bridge.getUID())
+                .withProperties(Map.of(OilFoxBindingConstants.PROPERTY_HWID, HWID)).build();
+        handler = new OilFoxHandler(device, refillPlanner);
+        device.setHandler(handler);
+        doAnswer(invocation -> {
+            ((Thing) invocation.getArgument(0)).setStatusInfo(invocation.getArgument(1));
+            return null;
+        }).when(callback).statusUpdated(any(), any());
+        when(callback.getBridge(bridge.getUID())).thenReturn(bridge);
+        handler.setCallback(callback);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        handler.dispose();
+    }
+
+    @Test
+    public void invalidMeteringTimeIsUndefined() {
+        JsonObject object = device("03.11.2025 08:59", "2025-11-04T08:59:12.000Z");
+        handler.onOilFoxRefresh(object);
+
+        verify(callback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_CURRENT_METERING_AT), UnDefType.UNDEF);
+        verify(callback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_NEXT_METERING_AT),
+                new DateTimeType(Instant.parse("2025-11-04T08:59:12Z")));
+        // the remaining channels, the status and the refill plan are still updated
+        verify(callback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_FILL_LEVEL_PERCENT), new DecimalType(57));
+        assertEquals(ThingStatus.ONLINE, device.getStatus());
+        assertEquals(1, refillPlanner.size());
+    }
+
+    @Test
+    public void meteringTimeFormatsAreParsed() {
+        handler.onOilFoxRefresh(device("2025-11-03T08:59:12Z", "2025-11-04T09:59:12.123456+01:00"));
+
+        verify(callback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_CURRENT_METERING_AT),
+                new DateTimeType(Instant.parse("2025-11-03T08:59:12Z")));
+        verify(callback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_NEXT_METERING_AT),
+                new DateTimeType(Instant.parse("2025-11-04T08:59:12.123456Z")));
+    }
+
+    private JsonObject device(String currentMeteringAt, String nextMeteringAt) {
+        JsonObject object = new JsonObject();
+        object.addProperty("hwid", HWID);
+        object.addProperty("currentMeteringAt", currentMeteringAt);
+        object.addProperty("nextMeteringAt", nextMeteringAt);
+        object.addProperty("daysReach", 42);
+        object.addProperty("batteryLevel", "GOOD");
+        object.addProperty("fillLevelPercent", 57);
+        object.addProperty("fillLevelQuantity", 2850);
+        object.addProperty("quantityUnit", "L");
+        return object;
+    }
+
+    private ChannelUID channel(String channelID) {
+        return new ChannelUID(device.getUID(), channelID);
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+import org.openhab.binding.oilfox.internal.OilFoxRefillPlanner;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.storage.Storage;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.ThingStatusInfo;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.thing.binding.builder.BridgeBuilder;
+import org.openhab.core.thing.binding.builder.ThingBuilder;
+import org.openhab.core.types.RefreshType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Stress test of the life cycle of an account: the account and its devices are initialized and disposed again and
+ * again while refreshes are requested concurrently. No update may arrive at a disposed thing and no device may be
+ * registered twice. The reload time of an account is measured as well and logged at debug level. The API is replayed
+ * from a generated log with short latencies. The number of cycles is set with the system property
+ * {@code oilfox.stress.cycles}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxLifecycleStressTest {
+
+    private static final int CYCLES = Integer.getInteger("oilfox.stress.cycles", 40);
+    private static final int DEVICES = 5;
+    private static final int REFRESHERS = 3;
+    private static final long MAX_CYCLE = 40; // milliseconds the account stays initialized at most
+    private static final int RELOADS = 20;
+    private static final long TIMEOUT = 5000; // milliseconds
+
+    private @TempDir @NonNullByDefault({}) Path folder;
+    private final Logger logger = LoggerFactory.getLogger(OilFoxLifecycleStressTest.class);
+    private final ExecutorService refreshers = Executors.newFixedThreadPool(REFRESHERS);
+    private final Map<ThingUID, AtomicBoolean> disposed = new ConcurrentHashMap<>();
+    private final AtomicInteger updates = new AtomicInteger();
+    private final Semaphore fillLevelUpdates = new Semaphore(0);
+    private final List<String> violations = new ArrayList<>();
+
+    private @NonNullByDefault({}) Bridge bridge;
+    private @NonNullByDefault({}) OilFoxBridgeHandler bridgeHandler;
+    private final List<OilFoxHandler> deviceHandlers = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Configuration configuration = new Configuration(
+                Map.of("replayFile", createReplayFile().toString(), "replaySpeed", BigDecimal.ONE));
+        bridge = BridgeBuilder.create(OilFoxBindingConstants.THING_TYPE_BRIDGE, "stress")
+                .withConfiguration(configuration).build();
+        OilFoxRefillPlanner refillPlanner = new OilFoxRefillPlanner();
+        @SuppressWarnings("unchecked")
+        Storage<String> sessionStorage = mock(Storage.class);
+        bridgeHandler = new OilFoxBridgeHandler(bridge, refillPlanner, sessionStorage);
+        bridge.setHandler(bridgeHandler);
+        bridgeHandler.setCallback(createCallback());
+        disposed.put(bridge.getUID(), new AtomicBoolean());
+
+        ThingHandlerCallback deviceCallback = createCallback();
+        for (int i = 0; i < DEVICES; i++) {
+            String hwid = getHWID(i);
+            Thing device = ThingBuilder
+                    .create(OilFoxBindingConstants.THING_TYPE_OILFOX,
+                            new ThingUID(OilFoxBindingConstants.THING_TYPE_OILFOX, bridge.getUID(), hwid))
+                    .withBridge(bridge.getUID()).withProperties(Map.of(OilFoxBindingConstants.PROPERTY_HWID, hwid))
+                    .build();
+            OilFoxHandler deviceHandler = new OilFoxHandler(device, refillPlanner);
+            device.setHandler(deviceHandler);
+            deviceHandler.setCallback(deviceCallback);
+            deviceHandlers.add(deviceHandler);
+            disposed.put(device.getUID(), new AtomicBoolean());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        refreshers.shutdownNow();
+        deviceHandlers.forEach(OilFoxHandler::dispose);
+        bridgeHandler.dispose();
+    }
+
+    /**
+     * @return callback recording updates of things already disposed
+     */
+    private ThingHandlerCallback createCallback() {
+        ThingHandlerCallback callback = mock(ThingHandlerCallback.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            Thing thing = invocation.getArgument(0);
+            check(thing.getUID(), "status " + invocation.getArgument(1));
+            thing.setStatusInfo(invocation.getArgument(1));
+            return null;
+        }).when(callback).statusUpdated(any(), any());
+        doAnswer(invocation -> {
+            ChannelUID channelUID = invocation.getArgument(0);
+            check(channelUID.getThingUID(), "state " + channelUID.getId());
+            updates.incrementAndGet();
+            if (OilFoxBindingConstants.CHANNEL_FILL_LEVEL_PERCENT.equals(channelUID.getId())) {
+                fillLevelUpdates.release();
+            }
+            return null;
+        }).when(callback).stateUpdated(any(), any());
+        doAnswer(invocation -> {
+            ChannelUID channelUID = invocation.getArgument(0);
+            check(channelUID.getThingUID(), "trigger " + channelUID.getId());
+            return null;
+        }).when(callback).channelTriggered(any(), any(), any());
+        when(callback.getBridge(any())).thenAnswer(invocation -> bridge);
+        return callback;
+    }
+
+    private void check(ThingUID thingUID, String update) {
+        AtomicBoolean thingDisposed = disposed.get(thingUID);
+        if (thingDisposed != null && thingDisposed.get()) {
+            synchronized (violations) {
+                violations.add(thingUID + ": " + update + " after dispose");
+            }
+        }
+    }
+
+    @Test
+    public void initializeAndDisposeWhileRefreshing() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int cycle = 0; cycle < CYCLES; cycle++) {
+            disposed.values().forEach(flag -> flag.set(false));
+            bridgeHandler.initialize();
+            for (OilFoxHandler deviceHandler : deviceHandlers) {
+                deviceHandler.initialize();
+            }
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < REFRESHERS; i++) {
+                futures.add(refreshers.submit(() -> {
+                    ThreadLocalRandom threadRandom = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        switch (threadRandom.nextInt(3)) {
+                            case 0 -> bridgeHandler.forceRefresh();
+                            case 1 -> bridgeHandler.handleCommand(null, RefreshType.REFRESH);
+                            default -> // a device initialized again without dispose, e.g. on a configuration change
+                                deviceHandlers.get(threadRandom.nextInt(DEVICES)).initialize();
+                        }
+                        TimeUnit.MILLISECONDS.sleep(threadRandom.nextInt(5));
+                    }
+                    return null;
+                }));
+            }
+            TimeUnit.MILLISECONDS.sleep(random.nextLong(MAX_CYCLE));
+            running.set(false);
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+
+            List<OilFoxStatusListener> listeners = bridgeHandler.getOilFoxStatusListeners();
+            assertEquals(listeners.size(), new HashSet<>(listeners).size(), "listener registered twice: " + listeners);
+            assertEquals(DEVICES, listeners.size());
+
+            // devices are disposed before their account, as by the framework, or the other way round
+            if (random.nextBoolean()) {
+                disposeDevices();
+                disposeBridge();
+            } else {
+                disposeBridge();
+                disposeDevices();
+            }
+            assertEquals(List.of(), bridgeHandler.getOilFoxStatusListeners());
+        }
+        TimeUnit.MILLISECONDS.sleep(100); // late updates of the last cycle
+        synchronized (violations) {
+            assertEquals(List.of(), violations);
+        }
+        assertTrue(updates.get() > 0, "no updates delivered");
+    }
+
+    /**
+     * Measure the reload of an account, e.g. after a configuration change: from the dispose of the account and its
+     * devices until all devices are updated by the first refresh of the new initialization. Written to the console.
+     */
+    @Test
+    public void reloadTime() throws InterruptedException {
+        List<Long> reloads = new ArrayList<>();
+        initialize();
+        assertTrue(fillLevelUpdates.tryAcquire(DEVICES, TIMEOUT, TimeUnit.MILLISECONDS));
+        for (int cycle = 0; cycle < RELOADS; cycle++) {
+            long start = System.nanoTime();
+            disposeDevices();
+            disposeBridge();
+            long disposed = System.nanoTime();
+            initialize();
+            assertTrue(fillLevelUpdates.tryAcquire(DEVICES, TIMEOUT, TimeUnit.MILLISECONDS), "devices not updated");
+            reloads.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            // the dispose does not wait for the full shutdown deadline
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(disposed - start) < 1000, "dispose too slow");
+        }
+        Collections.sort(reloads);
+        logger.debug("reloadTime(): {} reloads of {} devices: p50 {} us, max {} us", RELOADS, DEVICES,
+                reloads.get(reloads.size() / 2), reloads.get(reloads.size() - 1));
+    }
+
+    @Test
+    public void staleRefreshNotDispatched() throws InterruptedException {
+        initialize();
+        assertTrue(fillLevelUpdates.tryAcquire(DEVICES, TIMEOUT, TimeUnit.MILLISECONDS));
+        int staleGeneration = bridgeHandler.getGeneration();
+        disposeDevices();
+        disposeBridge();
+        initialize();
+        assertTrue(fillLevelUpdates.tryAcquire(DEVICES, TIMEOUT, TimeUnit.MILLISECONDS));
+
+        // a refresh of the earlier initialization, still running after the dispose deadline
+        Map<String, JsonObject> devices = new HashMap<>();
+        for (int i = 0; i < DEVICES; i++) {
+            devices.put(getHWID(i), createDevice(i));
+        }
+        bridgeHandler.dispatch(devices, staleGeneration);
+        assertFalse(fillLevelUpdates.tryAcquire(1, 200, TimeUnit.MILLISECONDS));
+
+        bridgeHandler.dispatch(devices, bridgeHandler.getGeneration());
+        assertTrue(fillLevelUpdates.tryAcquire(DEVICES, TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Initialize the devices first, so they receive the first refresh of the account, as on a reload.
+     */
+    private void initialize() {
+        disposed.values().forEach(flag -> flag.set(false));
+        bridge.setStatusInfo(new ThingStatusInfo(ThingStatus.ONLINE, ThingStatusDetail.NONE, null));
+        for (OilFoxHandler deviceHandler : deviceHandlers) {
+            deviceHandler.initialize();
+        }
+        bridgeHandler.initialize();
+    }
+
+    private void disposeDevices() {
+        for (OilFoxHandler deviceHandler : deviceHandlers) {
+            deviceHandler.dispose();
+            disposed.get(deviceHandler.getThing().getUID()).set(true);
+        }
+    }
+
+    private void disposeBridge() {
+        bridgeHandler.dispose();
+        disposed.get(bridge.getUID()).set(true);
+    }
+
+    /**
+     * Create a replay log with a login and the device list of all devices, with short latencies.
+     */
+    private Path createReplayFile() throws IOException {
+        JsonObject login = new JsonObject();
+        login.addProperty("method", "POST");
+        login.addProperty("path", "/customer-api/v1/login");
+        login.addProperty("latency", 5);
+        login.addProperty("status", 200);
+        JsonObject tokens = new JsonObject();
+        tokens.addProperty("access_token", "access");
+        tokens.addProperty("refresh_token", "refresh");
+        login.add("response", tokens);
+
+        JsonArray items = new JsonArray();
+        for (int i = 0; i < DEVICES; i++) {
+            items.add(createDevice(i));
+        }
+        JsonObject list = new JsonObject();
+        list.add("items", items);
+        JsonObject devices = new JsonObject();
+        devices.addProperty("method", "GET");
+        devices.addProperty("path", "/customer-api/v1/device");
+        devices.addProperty("latency", 10);
+        devices.addProperty("status", 200);
+        devices.add("response", list);
+
+        Path file = folder.resolve("stress.jsonl");
+        Files.write(file, List.of(login.toString(), devices.toString()), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * @return device metered an hour ago, the next metering is not due within the test, so no additional refresh is
+     *         requested
+     */
+    private static JsonObject createDevice(int i) {
+        Instant metering = Instant.now().truncatedTo(ChronoUnit.SECONDS).minus(1, ChronoUnit.HOURS);
+        JsonObject device = new JsonObject();
+        device.addProperty("hwid", getHWID(i));
+        device.addProperty("currentMeteringAt", metering.toString());
+        device.addProperty("nextMeteringAt", metering.plus(1, ChronoUnit.DAYS).toString());
+        device.addProperty("daysReach", 40 + i);
+        device.addProperty("batteryLevel", "GOOD");
+        device.addProperty("fillLevelPercent", 50 + i);
+        device.addProperty("fillLevelQuantity", 2500 + i);
+        device.addProperty("quantityUnit", "L");
+        return device;
+    }
+
+    private static String getHWID(int device) {
+        return String.format("STRESS%06d", device);
+    }
+}
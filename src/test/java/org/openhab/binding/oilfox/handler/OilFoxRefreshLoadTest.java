@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+import org.openhab.binding.oilfox.internal.OilFoxRefillPlanner;
+import org.openhab.binding.oilfox.internal.api.OilFoxApiSimulator;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.storage.Storage;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.ThingStatusInfo;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.thing.binding.builder.BridgeBuilder;
+import org.openhab.core.thing.binding.builder.ThingBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load test of the account refresh: several accounts refresh their devices from the {@link OilFoxApiSimulator}
+ * concurrently, each refresh is measured from the request until the last device has updated its channels. Latency and
+ * throughput are logged at debug level. The size is set with the system properties {@code oilfox.load.accounts},
+ * {@code oilfox.load.devices} and {@code oilfox.load.refreshes}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxRefreshLoadTest {
+
+    private static final int ACCOUNTS = Integer.getInteger("oilfox.load.accounts", 4);
+    private static final int DEVICES = Integer.getInteger("oilfox.load.devices", 200); // per account
+    // the request ledger allows 7 device list requests per hour with the highest refresh budget, one is the first
+    // refresh after initialization
+    private static final int REFRESHES = Math.min(5, Integer.getInteger("oilfox.load.refreshes", 5));
+    private static final long TIMEOUT = 30; // seconds per refresh
+
+    private @TempDir @NonNullByDefault({}) Path userData;
+    private @Nullable String previousUserData;
+    private @NonNullByDefault({}) OilFoxApiSimulator simulator;
+    private final Logger logger = LoggerFactory.getLogger(OilFoxRefreshLoadTest.class);
+    private final OilFoxRefillPlanner refillPlanner = new OilFoxRefillPlanner();
+    private final List<Account> accounts = new ArrayList<>();
+
+    /**
+     * An account with its device handlers, each channel update of the fill level releases one permit.
+     */
+    private record Account(OilFoxBridgeHandler bridgeHandler, List<OilFoxHandler> deviceHandlers,
+            Semaphore updates) {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        previousUserData = System.setProperty("openhab.userdata", userData.toString()); // location of the ledgers
+        simulator = new OilFoxApiSimulator(DEVICES);
+        simulator.setLatency(Duration.ofMillis(20), Duration.ofMillis(80));
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(createAccount("load" + i));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (Account account : accounts) {
+            account.deviceHandlers().forEach(OilFoxHandler::dispose);
+            account.bridgeHandler().dispose();
+        }
+        simulator.close();
+        String localPreviousUserData = previousUserData;
+        if (localPreviousUserData == null) {
+            System.clearProperty("openhab.userdata");
+        } else {
+            System.setProperty("openhab.userdata", localPreviousUserData);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Account createAccount(String id) {
+        Configuration configuration = new Configuration(Map.of("address", simulator.getAddress(), "email",
+                id + "@example.com", "password", "secret", "refreshBudget", 6));
+        Bridge bridge = BridgeBuilder.create(OilFoxBindingConstants.THING_TYPE_BRIDGE, id)
+                .withConfiguration(configuration).build();
+        OilFoxBridgeHandler bridgeHandler = new OilFoxBridgeHandler(bridge, refillPlanner, mock(Storage.class));
+        bridge.setHandler(bridgeHandler);
+        bridgeHandler.setCallback(createCallback(bridge, new Semaphore(0)));
+        // devices register first, so they receive the first refresh of the account
+        bridge.setStatusInfo(new ThingStatusInfo(ThingStatus.ONLINE, ThingStatusDetail.NONE, null));
+
+        Semaphore updates = new Semaphore(0);
+        ThingHandlerCallback deviceCallback = createCallback(bridge, updates);
+        List<OilFoxHandler> deviceHandlers = new ArrayList<>();
+        for (int i = 0; i < DEVICES; i++) {
+            String hwid = OilFoxApiSimulator.getHWID(i);
+            Thing device = ThingBuilder
+                    .create(OilFoxBindingConstants.THING_TYPE_OILFOX,
+                            new ThingUID(OilFoxBindingConstants.THING_TYPE_OILFOX, bridge.getUID(), hwid))
+                    .withBridge(bridge.getUID()).withProperties(Map.of(OilFoxBindingConstants.PROPERTY_HWID, hwid))
+                    .build();
+            OilFoxHandler deviceHandler = new OilFoxHandler(device, refillPlanner);
+            device.setHandler(deviceHandler);
+            deviceHandler.setCallback(deviceCallback);
+            deviceHandler.initialize();
+            deviceHandlers.add(deviceHandler);
+        }
+        return new Account(bridgeHandler, deviceHandlers, updates);
+    }
+
+    /**
+     * @return callback shared by the things of an account, without recording the invocations
+     */
+    private ThingHandlerCallback createCallback(Bridge bridge, Semaphore updates) {
+        ThingHandlerCallback callback = mock(ThingHandlerCallback.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            ((Thing) invocation.getArgument(0)).setStatusInfo(invocation.getArgument(1));
+            return null;
+        }).when(callback).statusUpdated(any(), any());
+        doAnswer(invocation -> {
+            if (OilFoxBindingConstants.CHANNEL_FILL_LEVEL_PERCENT
+                    .equals(((ChannelUID) invocation.getArgument(0)).getId())) {
+                updates.release();
+            }
+            return null;
+        }).when(callback).stateUpdated(any(), any());
+        when(callback.getBridge(bridge.getUID())).thenReturn(bridge);
+        return callback;
+    }
+
+    @Test
+    public void refreshAccountsConcurrently() throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+        List<CompletableFuture<@Nullable Void>> runs = new ArrayList<>();
+        for (Account account : accounts) {
+            runs.add(CompletableFuture.runAsync(() -> refresh(account, latencies)));
+        }
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).get();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        int refreshes = ACCOUNTS * (1 + REFRESHES);
+        assertEquals(refreshes, latencies.size());
+        assertEquals(refreshes, simulator.getRequests(OilFoxApiSimulator.DEVICE_PATH));
+        for (Account account : accounts) {
+            assertEquals(ThingStatus.ONLINE, account.bridgeHandler().getThing().getStatus());
+            assertEquals(DEVICES, account.bridgeHandler().getDeviceStore().size());
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long updates = (long) refreshes * DEVICES;
+        logger.debug("refreshAccountsConcurrently(): {} accounts x {} devices, {} refreshes in {} ms: latency p50 {} ms, "
+                + "p95 {} ms, max {} ms; {} device updates/s", ACCOUNTS, DEVICES, refreshes, elapsed,
+                percentile(sorted, 50), percentile(sorted, 95), sorted.get(sorted.size() - 1),
+                updates * 1000 / Math.max(1, elapsed));
+    }
+
+    /**
+     * Run the first refresh by initializing the account, then the forced refreshes, one after the other.
+     */
+    private void refresh(Account account, List<Long> latencies) {
+        try {
+            long start = System.nanoTime();
+            account.bridgeHandler().initialize();
+            awaitUpdates(account, start, latencies);
+            for (int i = 0; i < REFRESHES; i++) {
+                // the devices are updated asynchronously, the refresh may not have finished yet
+                while (account.bridgeHandler().getIOExecutor().getActive() > 0) {
+                    TimeUnit.MILLISECONDS.sleep(1);
+                }
+                start = System.nanoTime();
+                Future<?> refresh = account.bridgeHandler().forceRefresh();
+                assertNotNull(refresh);
+                awaitUpdates(account, start, latencies);
+                refresh.get(TIMEOUT, TimeUnit.SECONDS);
+            }
+        } catch (ExecutionException | TimeoutException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("interrupted");
+        }
+    }
+
+    private void awaitUpdates(Account account, long start, List<Long> latencies) throws InterruptedException {
+        assertTrue(account.updates().tryAcquire(DEVICES, TIMEOUT, TimeUnit.SECONDS), "devices not updated");
+        latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private long percentile(List<Long> sorted, int percentile) {
+        return sorted.get(Math.min(sorted.size() - 1, sorted.size() * percentile / 100));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+import org.openhab.binding.oilfox.internal.OilFoxRefillPlanner;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.Units;
+import org.openhab.core.storage.Storage;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.ThingStatusInfo;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.thing.binding.builder.BridgeBuilder;
+import org.openhab.core.thing.binding.builder.ThingBuilder;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * Replays the recorded refresh from {@code replay/refresh.jsonl} at original timing through the account and device
+ * handlers and checks the channel states of the device.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class OilFoxReplayRefreshTest {
+
+    private static final String HWID = "300A1B2C3D4E";
+    private static final long RECORDED_REFRESH = 450; // milliseconds from the login to the device list
+    private static final long TIMEOUT = 5000; // milliseconds
+
+    private @Mock @NonNullByDefault({}) ThingHandlerCallback bridgeCallback;
+    private @Mock @NonNullByDefault({}) ThingHandlerCallback deviceCallback;
+    private @Mock @NonNullByDefault({}) Storage<String> sessionStorage;
+
+    private @NonNullByDefault({}) Bridge bridge;
+    private @NonNullByDefault({}) Thing device;
+    private @NonNullByDefault({}) OilFoxBridgeHandler bridgeHandler;
+    private @NonNullByDefault({}) OilFoxHandler deviceHandler;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        URL recording = getClass().getResource("/replay/refresh.jsonl");
+        assertNotNull(recording);
+        Configuration configuration = new Configuration(Map.of("replayFile", Path.of(recording.toURI()).toString(),
+                "replaySpeed", BigDecimal.ONE));
+        bridge = BridgeBuilder.create(OilFoxBindingConstants.THING_TYPE_BRIDGE, "replay")
+                .withConfiguration(configuration).build();
+        ThingUID deviceUID = new ThingUID(OilFoxBindingConstants.THING_TYPE_OILFOX, bridge.getUID(), HWID);
+        device = ThingBuilder.create(OilFoxBindingConstants.THING_TYPE_OILFOX, deviceUID).withBridge(bridge.getUID())
+                .withProperties(Map.of(OilFoxBindingConstants.PROPERTY_HWID, HWID)).build();
+
+        OilFoxRefillPlanner refillPlanner = new OilFoxRefillPlanner();
+        bridgeHandler = new OilFoxBridgeHandler(bridge, refillPlanner, sessionStorage);
+        bridge.setHandler(bridgeHandler);
+        deviceHandler = new OilFoxHandler(device, refillPlanner);
+        device.setHandler(deviceHandler);
+
+        doAnswer(invocation -> {
+            ((Thing) invocation.getArgument(0)).setStatusInfo(invocation.getArgument(1));
+            return null;
+        }).when(bridgeCallback).statusUpdated(any(), any());
+        doAnswer(invocation -> {
+            ((Thing) invocation.getArgument(0)).setStatusInfo(invocation.getArgument(1));
+            return null;
+        }).when(deviceCallback).statusUpdated(any(), any());
+        when(deviceCallback.getBridge(bridge.getUID())).thenReturn(bridge);
+        bridgeHandler.setCallback(bridgeCallback);
+        deviceHandler.setCallback(deviceCallback);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        deviceHandler.dispose();
+        bridgeHandler.dispose();
+    }
+
+    @Test
+    public void replayedRefreshUpdatesDeviceChannels() {
+        // the device registers first, as on a reinitialization of the account, so it receives the first refresh
+        bridge.setStatusInfo(new ThingStatusInfo(ThingStatus.ONLINE, ThingStatusDetail.NONE, null));
+        deviceHandler.initialize();
+        assertEquals(ThingStatus.ONLINE, device.getStatus());
+
+        long start = System.nanoTime();
+        bridgeHandler.initialize();
+
+        verify(deviceCallback, timeout(TIMEOUT)).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_FILL_LEVEL_PERCENT),
+                new DecimalType(57));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsed >= RECORDED_REFRESH, "refreshed in " + elapsed + " ms");
+
+        verify(deviceCallback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_FILL_LEVEL_QUANTITY),
+                new QuantityType<>(2850, Units.LITRE));
+        verify(deviceCallback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_DAYS_REACH), new DecimalType(42));
+        verify(deviceCallback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_BATTERY_LEVEL),
+                new StringType("GOOD"));
+        verify(deviceCallback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_QUANTITY_UNIT),
+                new StringType("L"));
+        verify(deviceCallback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_CURRENT_METERING_AT),
+                new DateTimeType(Instant.parse("2025-11-03T08:59:12Z")));
+        verify(deviceCallback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_NEXT_METERING_AT),
+                new DateTimeType(Instant.parse("2025-11-04T08:59:12Z")));
+        verify(deviceCallback).stateUpdated(channel(OilFoxBindingConstants.CHANNEL_VALIDATION_ERROR),
+                UnDefType.UNDEF);
+        assertEquals(ThingStatus.ONLINE, bridge.getStatus());
+        assertEquals(1, bridgeHandler.getDeviceStore().size());
+    }
+
+    private ChannelUID channel(String channelID) {
+        return new ChannelUID(device.getUID(), channelID);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.oilfox.handler.OilFoxBridgeHandler;
+
+/**
+ * Loads the classes of the binding itself and hides an optionally imported package, like a bundle without the import.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class HidingClassLoader extends URLClassLoader {
+
+    public static final String BINDING_PACKAGE = "org.openhab.binding.oilfox.";
+
+    private final String hiddenPackage;
+
+    /**
+     * @param hiddenPackage package whose classes are not found, e.g. <code>jdk.jfr</code>
+     */
+    public HidingClassLoader(String hiddenPackage) {
+        super(new URL[] { OilFoxBridgeHandler.class.getProtectionDomain().getCodeSource().getLocation() },
+                HidingClassLoader.class.getClassLoader());
+        this.hiddenPackage = hiddenPackage + ".";
+    }
+
+    @Override
+    protected Class<?> loadClass(@NonNullByDefault({}) String name, boolean resolve) throws ClassNotFoundException {
+        if (name.startsWith(hiddenPackage)) {
+            throw new ClassNotFoundException(name);
+        }
+        if (!name.startsWith(BINDING_PACKAGE)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            return (loaded != null) ? loaded : findClass(name);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tests of the {@link OilFoxDeviceStore}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxDeviceStoreTest {
+
+    private static final int MEMORY_DEVICES = Integer.getInteger("oilfox.memory.devices", 10000);
+
+    private final Logger logger = LoggerFactory.getLogger(OilFoxDeviceStoreTest.class);
+    private final OilFoxDeviceStore store = new OilFoxDeviceStore();
+
+    @Test
+    public void updateOverwritesSlot() {
+        assertEquals(0, store.update(device(1)));
+        assertEquals(1, store.update(device(2)));
+        JsonObject changed = device(1);
+        changed.addProperty(OilFoxBindingConstants.OILFOX_FILL_LEVEL_PERCENT, 12);
+        changed.remove(OilFoxBindingConstants.OILFOX_DAYS_REACH);
+        assertEquals(0, store.update(changed));
+
+        OilFoxDeviceStore.Device device = store.get(getHWID(1));
+        assertNotNull(device);
+        assertEquals(12, device.fillLevelPercent());
+        assertEquals(OilFoxDeviceStore.MISSING, device.daysReach());
+        assertEquals(Instant.parse("2025-01-01T06:00:00Z"), device.currentMeteringAt());
+        assertEquals("GOOD", device.batteryLevel());
+        assertNull(device.validationError());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void retainRemovesMissingDevices() {
+        for (int i = 0; i < 5; i++) {
+            store.update(device(i));
+        }
+        List<String> removed = store.retain(Set.of(getHWID(1), getHWID(4)));
+
+        assertEquals(Set.of(getHWID(0), getHWID(2), getHWID(3)), Set.copyOf(removed));
+        assertEquals(2, store.size());
+        assertEquals(Set.of(getHWID(1), getHWID(4)), Set.copyOf(store.getHWIDs()));
+        assertNull(store.get(getHWID(0)));
+        assertEquals(-1, store.getSlot(getHWID(2)));
+        // moved devices keep their values and are found at their new slot
+        for (OilFoxDeviceStore.Device device : store.getDevices()) {
+            int i = Integer.parseInt(device.hwid().substring(3));
+            assertEquals(i % 101, device.fillLevelPercent());
+            assertEquals(device, store.get(store.getSlot(device.hwid())));
+        }
+        // a returning device gets a new slot
+        assertEquals(2, store.update(device(0)));
+        assertEquals(3, store.size());
+    }
+
+    /**
+     * Compare the heap used by the device objects of the API response with the device store. The numbers depend on
+     * the garbage collector and are only estimates, they are logged at debug level. Not run by default, run with
+     * {@code mvn test -DexcludedGroups= -Dgroups=benchmark}.
+     */
+    @Test
+    @Tag("benchmark")
+    public void heapOfStoreAndJsonObjects() {
+        long before = usedHeap();
+        Map<String, JsonObject> devices = new HashMap<>();
+        for (int i = 0; i < MEMORY_DEVICES; i++) {
+            devices.put(getHWID(i), device(i));
+        }
+        long jsonBytes = usedHeap() - before;
+        assertEquals(MEMORY_DEVICES, devices.size());
+        devices.clear();
+
+        before = usedHeap();
+        OilFoxDeviceStore memoryStore = new OilFoxDeviceStore();
+        for (int i = 0; i < MEMORY_DEVICES; i++) {
+            memoryStore.update(device(i));
+        }
+        long storeBytes = usedHeap() - before;
+        assertEquals(MEMORY_DEVICES, memoryStore.size());
+
+        logger.debug("heapOfStoreAndJsonObjects(): {} devices, JSON objects {} bytes, device store {} bytes per device",
+                MEMORY_DEVICES, jsonBytes / MEMORY_DEVICES, storeBytes / MEMORY_DEVICES);
+    }
+
+    private long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) { // a single request to collect garbage is not always honored
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String getHWID(int i) {
+        return String.format("SIM%09d", i);
+    }
+
+    private static JsonObject device(int i) {
+        JsonObject device = new JsonObject();
+        device.addProperty("hwid", getHWID(i));
+        device.addProperty(OilFoxBindingConstants.OILFOX_CURRENT_METERING_AT, "2025-01-01T06:00:00.000Z");
+        device.addProperty(OilFoxBindingConstants.OILFOX_NEXT_METERING_AT, "2025-01-01T18:00:00.000Z");
+        device.addProperty(OilFoxBindingConstants.OILFOX_DAYS_REACH, 30 + i % 300);
+        device.addProperty(OilFoxBindingConstants.OILFOX_BATTERY_LEVEL, "GOOD");
+        device.addProperty(OilFoxBindingConstants.OILFOX_FILL_LEVEL_PERCENT, i % 101);
+        device.addProperty(OilFoxBindingConstants.OILFOX_FILL_LEVEL_QUANTITY, 100 + i % 5000);
+        device.addProperty(OilFoxBindingConstants.OILFOX_QUANTITY_UNIT, "L");
+        return device;
+    }
+}
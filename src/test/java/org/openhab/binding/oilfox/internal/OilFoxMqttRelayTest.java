@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttConnectionState;
+
+/**
+ * Tests of the {@link OilFoxMqttRelay} with a mocked broker connection, and of the handlers without the MQTT
+ * transport, which is imported optionally.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class OilFoxMqttRelayTest {
+
+    private static final String TOPIC = "oilfox/account";
+    private static final OilFoxDeviceStore.Device DEVICE = new OilFoxDeviceStore.Device("HWID0001", 2850, 57, 42,
+            Instant.parse("2025-11-03T09:00:00Z"), null, "L", "GOOD", null);
+
+    private @Mock @NonNullByDefault({}) MqttBrokerConnection connection;
+    private @NonNullByDefault({}) OilFoxMqttRelay relay;
+
+    @BeforeEach
+    public void setUp() {
+        when(connection.start()).thenAnswer(invocation -> {
+            when(connection.connectionState()).thenReturn(MqttConnectionState.CONNECTED);
+            return CompletableFuture.completedFuture(true);
+        });
+        when(connection.stop()).thenAnswer(invocation -> {
+            when(connection.connectionState()).thenReturn(MqttConnectionState.DISCONNECTED);
+            return CompletableFuture.completedFuture(true);
+        });
+        when(connection.connectionState()).thenReturn(MqttConnectionState.DISCONNECTED);
+        when(connection.publish(anyString(), any(), anyInt(), anyBoolean()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        relay = new OilFoxMqttRelay(connection, TOPIC);
+    }
+
+    private void verifyPublished(String topic, String payload) {
+        verify(connection).publish(topic, payload.getBytes(StandardCharsets.UTF_8), 1, true);
+    }
+
+    @Test
+    public void publishesChangedDevicesOnly() {
+        relay.start();
+        relay.publish(DEVICE);
+        relay.publish(DEVICE);
+
+        verifyPublished(TOPIC + "/status", "online");
+        verify(connection, times(1)).publish(eq(TOPIC + "/HWID0001"), any(), eq(1), eq(true));
+    }
+
+    @Test
+    public void removeClearsRetainedMessage() {
+        relay.start();
+        relay.publish(DEVICE);
+        relay.remove(DEVICE.hwid());
+
+        verifyPublished(TOPIC + "/HWID0001", "");
+    }
+
+    @Test
+    public void removeWhileDisconnectedClearedOnConnect() {
+        relay.remove(DEVICE.hwid());
+        verify(connection, never()).publish(anyString(), any(), anyInt(), anyBoolean());
+
+        relay.start();
+        verifyPublished(TOPIC + "/HWID0001", "");
+    }
+
+    @Test
+    public void connectsAfterPreviousRelayDisconnected() {
+        CompletableFuture<@Nullable Void> previous = new CompletableFuture<>();
+        relay.start(previous);
+        verify(connection, never()).start();
+
+        previous.complete(null);
+        InOrder inOrder = inOrder(connection);
+        inOrder.verify(connection).start();
+        inOrder.verify(connection).publish(TOPIC + "/status", "online".getBytes(StandardCharsets.UTF_8), 1, true);
+    }
+
+    @Test
+    public void stoppedBeforePreviousRelayDisconnected() {
+        CompletableFuture<@Nullable Void> previous = new CompletableFuture<>();
+        relay.start(previous);
+        relay.stop();
+        previous.complete(null);
+
+        verify(connection, never()).start();
+    }
+
+    @Test
+    public void stopPublishesOfflineBeforeDisconnect() {
+        relay.start();
+        CompletableFuture<Boolean> disconnect = new CompletableFuture<>();
+        doReturn(disconnect).when(connection).stop();
+
+        CompletableFuture<@Nullable Void> stopped = relay.stop();
+        InOrder inOrder = inOrder(connection);
+        inOrder.verify(connection).publish(TOPIC + "/status", "offline".getBytes(StandardCharsets.UTF_8), 1, true);
+        inOrder.verify(connection).stop();
+        assertFalse(stopped.isDone());
+
+        disconnect.complete(true);
+        assertTrue(stopped.isDone());
+    }
+
+    @Test
+    public void handlersLoadedWithoutMqttTransport() throws ReflectiveOperationException, IOException {
+        assertTrue(OilFoxMqttRelay.isAvailable());
+        try (URLClassLoader loader = new HidingClassLoader("org.openhab.core.io.transport.mqtt")) {
+            Class<?> relay = Class.forName(OilFoxMqttRelay.class.getName(), true, loader);
+            assertEquals(Boolean.FALSE, relay.getMethod("isAvailable").invoke(null));
+            Class.forName(HidingClassLoader.BINDING_PACKAGE + "internal.OilFoxHandlerFactory", true, loader);
+            Class.forName(HidingClassLoader.BINDING_PACKAGE + "handler.OilFoxBridgeHandler", true, loader);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@link OilFoxRefillPlanner}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxRefillPlannerTest {
+
+    private static final String FIRST = "oilfox:account:first";
+    private static final String SECOND = "oilfox:account:second";
+
+    private final OilFoxRefillPlanner planner = new OilFoxRefillPlanner();
+    private final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+    private OilFoxRefillPlanner.Refill refill(String bridgeUID, String hwid, int days) {
+        return new OilFoxRefillPlanner.Refill(bridgeUID, hwid, today.plusDays(days), days * 2, 30);
+    }
+
+    @Test
+    public void dueDevicesOfOneAccount() {
+        planner.update(refill(FIRST, "HWID0001", 3));
+        planner.update(refill(SECOND, "HWID0002", 3));
+        planner.update(refill(SECOND, "HWID0003", 20));
+
+        assertEquals(Map.of(today.plusDays(3), List.of(refill(FIRST, "HWID0001", 3))), planner.getDue(14, FIRST));
+        assertEquals(Map.of(today.plusDays(3), List.of(refill(SECOND, "HWID0002", 3))), planner.getDue(14, SECOND));
+        assertEquals(Map.of(today.plusDays(3), List.of(refill(FIRST, "HWID0001", 3), refill(SECOND, "HWID0002", 3))),
+                planner.getDue(14, null));
+        assertTrue(planner.getDue(14, "oilfox:account:unknown").isEmpty());
+    }
+
+    @Test
+    public void updateMovesAndRemoveDropsDevice() {
+        planner.update(refill(FIRST, "HWID0001", 3));
+        planner.update(refill(FIRST, "HWID0001", 30)); // refilled
+        assertTrue(planner.getDue(14, FIRST).isEmpty());
+        assertEquals(1, planner.size());
+
+        // the same hwid in another account is another device
+        planner.update(refill(SECOND, "HWID0001", 1));
+        planner.remove(FIRST, "HWID0001");
+        assertEquals(1, planner.size());
+        assertTrue(planner.getDue(60, FIRST).isEmpty());
+        assertEquals(1, planner.getDue(14, SECOND).size());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@link OilFoxRefreshDispatcher}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxRefreshDispatcherTest {
+
+    private static final int LISTENERS = 20;
+    private static final int REFRESHES = 200;
+
+    private final OilFoxRefreshDispatcher dispatcher = new OilFoxRefreshDispatcher("test-dispatcher");
+
+    @AfterEach
+    public void tearDown() {
+        dispatcher.shutdownNow();
+    }
+
+    @Test
+    public void deliverUpdatesOfOneListenerInOrder() throws InterruptedException {
+        Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(LISTENERS * REFRESHES);
+        for (int refresh = 0; refresh < REFRESHES; refresh++) {
+            for (int listener = 0; listener < LISTENERS; listener++) {
+                String name = "hwid" + listener;
+                int value = refresh;
+                dispatcher.dispatch(name, () -> {
+                    received.computeIfAbsent(name, key -> Collections.synchronizedList(new ArrayList<>())).add(value);
+                    if (value % 50 == 0) {
+                        Thread.yield();
+                    }
+                    done.countDown();
+                });
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(LISTENERS, received.size());
+        for (List<Integer> values : received.values()) {
+            assertEquals(REFRESHES, values.size());
+            for (int i = 0; i < REFRESHES; i++) {
+                assertEquals(i, values.get(i));
+            }
+        }
+        assertEquals(LISTENERS * REFRESHES, dispatcher.getDelivered());
+        assertEquals(0, dispatcher.getQueued());
+    }
+
+    @Test
+    public void slowListenerDoesNotDelayOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        dispatcher.dispatch("slow", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        dispatcher.dispatch("slow", () -> {
+        });
+        dispatcher.dispatch("fast", delivered::countDown);
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, dispatcher.getQueued());
+        release.countDown();
+    }
+
+    @Test
+    public void failingUpdateDoesNotStopListener() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(1);
+        dispatcher.dispatch("hwid", () -> {
+            throw new IllegalStateException("test");
+        });
+        dispatcher.dispatch("hwid", delivered::countDown);
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, dispatcher.getFailed());
+    }
+
+    @Test
+    public void laneRemovedAfterPendingUpdates() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        dispatcher.dispatch("hwid", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        dispatcher.dispatch("hwid", delivered::countDown);
+        dispatcher.remove("hwid");
+        assertEquals(1, dispatcher.getLanes()); // the pending update is still delivered
+
+        release.countDown();
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dispatcher.getLanes() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(0, dispatcher.getLanes());
+        dispatcher.remove("unknown");
+        assertEquals(0, dispatcher.getLanes());
+    }
+
+    @Test
+    public void dropUpdatesAfterShutdown() throws InterruptedException {
+        dispatcher.shutdown();
+        assertTrue(dispatcher.awaitTermination(1000));
+        dispatcher.dispatch("hwid", () -> fail("delivered after shutdown"));
+        assertEquals(0, dispatcher.getQueued());
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+
+/**
+ * Tests of the {@link OilFoxThresholdAlert}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxThresholdAlertTest {
+
+    @Test
+    public void hysteresisRoundedUpToWholeUnits() {
+        OilFoxThresholdAlert alert = new OilFoxThresholdAlert(new BigDecimal(5), BigDecimal.TEN);
+
+        assertNull(alert.check(5));
+        assertEquals(OilFoxBindingConstants.EVENT_LOW, alert.check(4));
+        assertNull(alert.check(4));
+        assertNull(alert.check(6)); // 10 percent of 5 days is rounded up to one day, not cleared at the clear level
+        assertEquals(OilFoxBindingConstants.EVENT_NORMAL, alert.check(7));
+        assertNull(alert.check(7));
+    }
+
+    @Test
+    public void withoutHysteresisClearedAboveThreshold() {
+        OilFoxThresholdAlert alert = new OilFoxThresholdAlert(new BigDecimal(500), BigDecimal.ZERO);
+
+        assertEquals(OilFoxBindingConstants.EVENT_LOW, alert.check(499));
+        assertNull(alert.check(500));
+        assertEquals(OilFoxBindingConstants.EVENT_NORMAL, alert.check(501));
+    }
+
+    @Test
+    public void disabledWithoutThreshold() {
+        OilFoxThresholdAlert alert = new OilFoxThresholdAlert(null, BigDecimal.TEN);
+
+        assertNull(alert.check(0));
+        assertFalse(alert.isActive());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link OilFoxAdaptiveTransport} against two {@link OilFoxApiSimulator}s: requests repeated on another
+ * host, their permits and the cancellation of the slower request of a hedged pair.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxAdaptiveTransportTest {
+
+    private static final OilFoxRequest LOGIN = new OilFoxRequest(OilFoxApiSimulator.LOGIN_PATH, "application/json",
+            "{\"email\":\"user@example.com\",\"password\":\"secret\"}", null);
+    private static final OilFoxRequest DEVICES = new OilFoxRequest(OilFoxApiSimulator.DEVICE_PATH,
+            "application/json", null, "access-1");
+
+    private @NonNullByDefault({}) OilFoxApiSimulator first;
+    private @NonNullByDefault({}) OilFoxApiSimulator second;
+    private final AtomicInteger permits = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger(); // running tasks of the executor
+
+    /**
+     * Runs each task on a thread of its own, like the virtual thread executor of the account.
+     */
+    private final Executor executor = task -> {
+        active.incrementAndGet();
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        first = new OilFoxApiSimulator(3);
+        second = new OilFoxApiSimulator(3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        first.close();
+        second.close();
+    }
+
+    private OilFoxAdaptiveTransport createTransport(List<String> hosts, boolean hedging, boolean permitted) {
+        return new OilFoxAdaptiveTransport(hosts, executor, hedging, path -> {
+            permits.incrementAndGet();
+            return permitted;
+        });
+    }
+
+    @Test
+    public void loginNotRepeated() {
+        first.setErrors(1, OilFoxApiSimulator.CONNECTION_RESET);
+        OilFoxAdaptiveTransport transport = createTransport(List.of(first.getAddress(), second.getAddress()), true,
+                true);
+
+        assertThrows(IOException.class, () -> transport.exchange(LOGIN));
+        assertEquals(1, first.getRequests(OilFoxApiSimulator.LOGIN_PATH));
+        assertEquals(0, second.getRequests(OilFoxApiSimulator.LOGIN_PATH));
+        assertEquals(0, permits.get());
+        transport.close();
+    }
+
+    @Test
+    public void failoverNeedsPermit() throws IOException {
+        first.setErrors(1, OilFoxApiSimulator.CONNECTION_RESET);
+        OilFoxAdaptiveTransport transport = createTransport(List.of(first.getAddress(), second.getAddress()), false,
+                true);
+
+        assertEquals(200, transport.exchange(DEVICES).status());
+        // a GET on a reset connection may be sent once more by the connection itself
+        assertTrue(first.getRequests(OilFoxApiSimulator.DEVICE_PATH) >= 1);
+        assertEquals(1, second.getRequests(OilFoxApiSimulator.DEVICE_PATH));
+        assertEquals(1, permits.get());
+        transport.close();
+    }
+
+    @Test
+    public void noFailoverOverLimit() {
+        first.setErrors(1, OilFoxApiSimulator.CONNECTION_RESET);
+        OilFoxAdaptiveTransport transport = createTransport(List.of(first.getAddress(), second.getAddress()), false,
+                false);
+
+        assertThrows(IOException.class, () -> transport.exchange(DEVICES));
+        assertTrue(first.getRequests(OilFoxApiSimulator.DEVICE_PATH) >= 1);
+        assertEquals(0, second.getRequests(OilFoxApiSimulator.DEVICE_PATH));
+        assertEquals(1, transport.getDenied());
+        transport.close();
+    }
+
+    @Test
+    public void noHedgingWithSingleHost() throws IOException {
+        OilFoxAdaptiveTransport transport = createTransport(List.of(first.getAddress()), true, true);
+        for (int i = 0; i < 10; i++) {
+            transport.exchange(DEVICES);
+        }
+        first.setLatency(Duration.ofMillis(400), Duration.ofMillis(400)); // slower than the hedge delay
+
+        assertEquals(200, transport.exchange(DEVICES).status());
+        assertEquals(11, first.getRequests(OilFoxApiSimulator.DEVICE_PATH));
+        assertEquals(0, transport.getHedged());
+        assertEquals(0, permits.get());
+        assertEquals(0, active.get()); // sent on the calling thread
+        transport.close();
+    }
+
+    @Test
+    public void slowerRequestCancelled() throws Exception {
+        // the first connection of the JVM is slow, it would rank the first host behind the second one
+        new OilFoxHttpsTransport(first.getAddress()).exchange(DEVICES);
+        new OilFoxHttpsTransport(second.getAddress()).exchange(DEVICES);
+        first.setLatency(Duration.ofMillis(5), Duration.ofMillis(5));
+        second.setLatency(Duration.ofMillis(50), Duration.ofMillis(50));
+        OilFoxAdaptiveTransport transport = createTransport(List.of(first.getAddress(), second.getAddress()), true,
+                true);
+        for (int i = 0; i < 20; i++) { // the first host gets enough latencies and ranks first
+            transport.exchange(DEVICES);
+        }
+        int hedged = transport.getHedged();
+        int secondRequests = second.getRequests(OilFoxApiSimulator.DEVICE_PATH);
+        first.setLatency(Duration.ofMillis(1500), Duration.ofMillis(1500));
+
+        long start = System.nanoTime();
+        assertEquals(200, transport.exchange(DEVICES).status());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, "hedged response not used");
+        assertEquals(hedged + 1, transport.getHedged());
+        assertEquals(secondRequests + 1, second.getRequests(OilFoxApiSimulator.DEVICE_PATH));
+        assertEquals(hedged + 1, permits.get());
+
+        // the request to the first host is aborted, instead of waiting for its response
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        while (active.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(0, active.get());
+        transport.close();
+    }
+}
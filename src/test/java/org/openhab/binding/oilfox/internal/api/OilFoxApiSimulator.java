@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The {@link OilFoxApiSimulator} is a local stand-in of the FoxInsights Customer API for tests: login, token refresh
+ * and a device list of a given number of devices, whose values change with every request. Latency and errors can be
+ * injected for all requests.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxApiSimulator implements AutoCloseable {
+
+    public static final String LOGIN_PATH = "/customer-api/v1/login";
+    public static final String TOKEN_PATH = "/customer-api/v1/token";
+    public static final String DEVICE_PATH = "/customer-api/v1/device";
+
+    /**
+     * Status of an injected error, which closes the connection without a response.
+     */
+    public static final int CONNECTION_RESET = 0;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final int devices;
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>(); // by path
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicLong tokens = new AtomicLong();
+    private volatile long minLatency = 0; // milliseconds
+    private volatile long maxLatency = 0; // milliseconds
+    private volatile double errorRate = 0;
+    private volatile int errorStatus = 503;
+
+    /**
+     * Start the simulator on a free port of the loopback interface.
+     *
+     * @param devices number of devices in the device list
+     */
+    public OilFoxApiSimulator(int devices) throws IOException {
+        this.devices = devices;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/customer-api/v1/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return address of the simulator for the account configuration, e.g. http://127.0.0.1:38211
+     */
+    public String getAddress() {
+        return "http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Delay every response by a random latency within the given range.
+     */
+    public void setLatency(Duration min, Duration max) {
+        minLatency = min.toMillis();
+        maxLatency = Math.max(min.toMillis(), max.toMillis());
+    }
+
+    /**
+     * Answer a share of the requests with an error.
+     *
+     * @param rate share of requests failing, from 0 to 1
+     * @param status HTTP status of the error, {@link #CONNECTION_RESET} to close the connection without response
+     */
+    public void setErrors(double rate, int status) {
+        errorRate = rate;
+        errorStatus = status;
+    }
+
+    public static String getHWID(int device) {
+        return String.format("SIM%09d", device);
+    }
+
+    /**
+     * @return number of requests received for a path, including failed requests
+     */
+    public int getRequests(String path) {
+        AtomicInteger count = requests.get(path);
+        return (count == null) ? 0 : count.get();
+    }
+
+    public int getErrors() {
+        return errors.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        int count = requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            long latency = (maxLatency > minLatency) ? ThreadLocalRandom.current().nextLong(minLatency, maxLatency + 1)
+                    : minLatency;
+            if (latency > 0) {
+                TimeUnit.MILLISECONDS.sleep(latency);
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                if (errorStatus != CONNECTION_RESET) {
+                    exchange.sendResponseHeaders(errorStatus, -1);
+                }
+                return; // closed without response
+            }
+            switch (path) {
+                case LOGIN_PATH, TOKEN_PATH -> send(exchange, "POST", login());
+                case DEVICE_PATH -> {
+                    String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                    if (authorization == null || !authorization.startsWith("Bearer ")) {
+                        exchange.sendResponseHeaders(401, -1);
+                    } else {
+                        send(exchange, "GET", deviceList(count));
+                    }
+                }
+                default -> exchange.sendResponseHeaders(404, -1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(HttpExchange exchange, String method, JsonObject body) throws IOException {
+        if (!method.equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private JsonObject login() {
+        long token = tokens.incrementAndGet();
+        JsonObject object = new JsonObject();
+        object.addProperty("access_token", "access-" + token);
+        object.addProperty("refresh_token", "refresh-" + token);
+        return object;
+    }
+
+    /**
+     * @param count number of the request, the fill levels drop with every request
+     */
+    private JsonObject deviceList(int count) {
+        Instant metering = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        JsonArray items = new JsonArray(devices);
+        for (int i = 0; i < devices; i++) {
+            int percent = 100 - (i + count) % 100;
+            JsonObject device = new JsonObject();
+            device.addProperty("id", "sim-" + i);
+            device.addProperty("hwid", getHWID(i));
+            device.addProperty("currentMeteringAt", metering.toString());
+            device.addProperty("nextMeteringAt", metering.plus(1, ChronoUnit.DAYS).toString());
+            device.addProperty("daysReach", percent * 2);
+            device.addProperty("batteryLevel", "GOOD");
+            device.addProperty("fillLevelPercent", percent);
+            device.addProperty("fillLevelQuantity", percent * 50);
+            device.addProperty("quantityUnit", "L");
+            items.add(device);
+        }
+        JsonObject object = new JsonObject();
+        object.add("items", items);
+        return object;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
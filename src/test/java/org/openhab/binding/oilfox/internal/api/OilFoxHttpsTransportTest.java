@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link OilFoxHttpsTransport} against the {@link OilFoxApiSimulator}.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxHttpsTransportTest {
+
+    private static final OilFoxRequest LOGIN = new OilFoxRequest(OilFoxApiSimulator.LOGIN_PATH, "application/json",
+            "{\"email\":\"user@example.com\",\"password\":\"secret\"}", null);
+    private static final OilFoxRequest DEVICES = new OilFoxRequest(OilFoxApiSimulator.DEVICE_PATH,
+            "application/json", null, "access-1");
+
+    private @NonNullByDefault({}) OilFoxApiSimulator simulator;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        simulator = new OilFoxApiSimulator(3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    public void allowsPlainHttpToLoopbackOnly() throws MalformedURLException {
+        assertEquals("https://api.oilfox.io", OilFoxHttpsTransport.getBaseURI("api.oilfox.io").toString());
+        assertEquals("https://api.oilfox.io:443", OilFoxHttpsTransport.getBaseURI("https://api.oilfox.io:443").toString());
+        OilFoxHttpsTransport.getBaseURI("http://localhost:8080");
+        OilFoxHttpsTransport.getBaseURI("http://127.0.0.1:8080");
+        OilFoxHttpsTransport.getBaseURI("http://[::1]:8080");
+
+        assertThrows(MalformedURLException.class, () -> OilFoxHttpsTransport.getBaseURI("http://api.oilfox.io"));
+        assertThrows(MalformedURLException.class, () -> OilFoxHttpsTransport.getBaseURI("http://192.168.1.20:8080"));
+        assertThrows(MalformedURLException.class, () -> OilFoxHttpsTransport.getBaseURI("http://localhost.example.com"));
+        assertThrows(MalformedURLException.class, () -> OilFoxHttpsTransport.getBaseURI("ftp://localhost"));
+    }
+
+    @Test
+    public void doesNotSendCredentialsOverPlainHttpToOtherHosts() {
+        OilFoxHttpsTransport transport = new OilFoxHttpsTransport("http://api.oilfox.io");
+        assertThrows(MalformedURLException.class, () -> transport.exchange(LOGIN));
+    }
+
+    @Test
+    public void exchangesWithLocalStandIn() throws IOException {
+        OilFoxHttpsTransport transport = new OilFoxHttpsTransport(simulator.getAddress());
+        OilFoxResponse login = transport.exchange(LOGIN);
+        assertEquals(200, login.status());
+        assertTrue(login.body().contains("access_token"));
+
+        OilFoxResponse devices = transport.exchange(DEVICES);
+        assertEquals(200, devices.status());
+        assertTrue(devices.body().contains(OilFoxApiSimulator.getHWID(2)));
+        assertEquals(1, simulator.getRequests(OilFoxApiSimulator.DEVICE_PATH));
+    }
+
+    @Test
+    public void reportsInjectedErrors() throws IOException {
+        OilFoxHttpsTransport transport = new OilFoxHttpsTransport(simulator.getAddress());
+        simulator.setErrors(1, 503);
+        assertEquals(503, transport.exchange(DEVICES).status());
+
+        simulator.setErrors(1, OilFoxApiSimulator.CONNECTION_RESET);
+        assertThrows(IOException.class, () -> transport.exchange(DEVICES));
+        // the JDK retries a GET once after the connection was closed without response
+        assertTrue(simulator.getErrors() >= 2);
+    }
+
+    @Test
+    public void closeAbortsSlowRequest() throws InterruptedException {
+        OilFoxHttpsTransport transport = new OilFoxHttpsTransport(simulator.getAddress());
+        simulator.setLatency(Duration.ofSeconds(5), Duration.ofSeconds(5));
+        CompletableFuture<OilFoxResponse> request = CompletableFuture.supplyAsync(() -> {
+            try {
+                return transport.exchange(DEVICES);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (simulator.getRequests(OilFoxApiSimulator.DEVICE_PATH) == 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        long start = System.nanoTime();
+        transport.close();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> request.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(InterruptedIOException.class, e.getCause().getCause());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+    }
+}
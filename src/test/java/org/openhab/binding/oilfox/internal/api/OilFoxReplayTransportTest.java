@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests for {@link OilFoxReplayTransport}, replaying the recorded refresh from {@code replay/refresh.jsonl}: a login,
+ * the device list and the device list of the additional refresh 5 minutes later.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxReplayTransportTest {
+
+    private static final String DEVICE_PATH = "/customer-api/v1/device";
+    private static final OilFoxRequest LOGIN = new OilFoxRequest("/customer-api/v1/login", "application/json",
+            "{\"email\":\"\",\"password\":\"\"}", null);
+    private static final OilFoxRequest DEVICES = new OilFoxRequest(DEVICE_PATH, "application/json", null, "token");
+    private static final long RECORDED_SPACING = 300520; // milliseconds from the login to the second device list
+
+    private Path getRecording() throws URISyntaxException {
+        URL resource = OilFoxReplayTransportTest.class.getResource("/replay/refresh.jsonl");
+        assertNotNull(resource);
+        return Path.of(resource.toURI());
+    }
+
+    @Test
+    public void replaysResponsesInRecordedOrder() throws Exception {
+        try (OilFoxReplayTransport transport = new OilFoxReplayTransport(getRecording(), 0)) {
+            assertEquals(200, transport.exchange(LOGIN).status());
+            assertEquals(57, getFillLevelPercent(transport.exchange(DEVICES)));
+            assertEquals(56, getFillLevelPercent(transport.exchange(DEVICES)));
+            // all device lists used, the replay starts again with the first one
+            assertEquals(57, getFillLevelPercent(transport.exchange(DEVICES)));
+        }
+    }
+
+    @Test
+    public void keepsRecordedSpacingBetweenRequests() throws Exception {
+        double speed = 1000; // the 5 minutes between the refreshes take 300 ms
+        try (OilFoxReplayTransport transport = new OilFoxReplayTransport(getRecording(), speed)) {
+            long start = System.nanoTime();
+            transport.exchange(LOGIN);
+            transport.exchange(DEVICES);
+            // requested right away, but answered at the recorded time of the additional refresh
+            OilFoxResponse response = transport.exchange(DEVICES);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertEquals(56, getFillLevelPercent(response));
+            assertTrue(elapsed >= (long) (RECORDED_SPACING / speed), "replayed in " + elapsed + " ms");
+
+            // the next round of the recording follows after the recorded span
+            transport.exchange(DEVICES);
+            elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsed >= (long) ((RECORDED_SPACING + 450) / speed), "replayed in " + elapsed + " ms");
+        }
+    }
+
+    @Test
+    public void replaysWithoutDelayAtSpeedZero() throws Exception {
+        try (OilFoxReplayTransport transport = new OilFoxReplayTransport(getRecording(), 0)) {
+            long start = System.nanoTime();
+            transport.exchange(LOGIN);
+            transport.exchange(DEVICES);
+            transport.exchange(DEVICES);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsed < 1000, "replayed in " + elapsed + " ms");
+        }
+    }
+
+    private int getFillLevelPercent(OilFoxResponse response) {
+        JsonObject device = JsonParser.parseString(response.body()).getAsJsonObject().getAsJsonArray("items").get(0)
+                .getAsJsonObject();
+        return device.get("fillLevelPercent").getAsInt();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.oilfox.internal.HidingClassLoader;
+
+/**
+ * Tests that the handlers can be loaded without the package <code>jdk.jfr</code>, which is imported optionally.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+public class OilFoxFlightRecorderTest {
+
+    @Test
+    public void availableWithJdk() {
+        assertTrue(OilFoxFlightRecorder.isAvailable());
+    }
+
+    @Test
+    public void handlersLoadedWithoutJdkJfr() throws ReflectiveOperationException, IOException {
+        try (URLClassLoader loader = new HidingClassLoader("jdk.jfr")) {
+            Class<?> recorder = Class.forName(OilFoxFlightRecorder.class.getName(), true, loader);
+            assertEquals(Boolean.FALSE, recorder.getMethod("isAvailable").invoke(null));
+            // linking verifies the handlers, it fails if they refer to an event as another type
+            Class.forName(HidingClassLoader.BINDING_PACKAGE + "handler.OilFoxBridgeHandler", true, loader);
+            Class.forName(HidingClassLoader.BINDING_PACKAGE + "handler.OilFoxHandler", true, loader);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2010-2025 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.oilfox.internal.servlet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.oilfox.OilFoxBindingConstants;
+import org.openhab.binding.oilfox.handler.OilFoxBridgeHandler;
+import org.openhab.binding.oilfox.internal.OilFoxBridgeConfiguration;
+import org.openhab.binding.oilfox.internal.OilFoxDeviceStore;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingRegistry;
+import org.openhab.core.thing.binding.builder.BridgeBuilder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tests of the {@link OilFoxFleetServlet}: fleet token and CSV format.
+ *
+ * @author Thomas M. - Initial contribution
+ */
+@NonNullByDefault
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class OilFoxFleetServletTest {
+
+    private @Mock @NonNullByDefault({}) ThingRegistry thingRegistry;
+    private @Mock @NonNullByDefault({}) HttpServletRequest request;
+    private @Mock @NonNullByDefault({}) HttpServletResponse response;
+
+    private final StringWriter output = new StringWriter();
+    private final OilFoxBridgeConfiguration first = new OilFoxBridgeConfiguration();
+    private final OilFoxBridgeConfiguration second = new OilFoxBridgeConfiguration();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Thing firstBridge = createAccount("first", first, "FIRST0001");
+        Thing secondBridge = createAccount("second", second, "SECOND0001");
+        when(thingRegistry.getAll()).thenReturn(List.of(firstBridge, secondBridge));
+        when(response.getWriter()).thenReturn(new PrintWriter(output));
+    }
+
+    private Thing createAccount(String id, OilFoxBridgeConfiguration config, String hwid) {
+        Bridge bridge = BridgeBuilder.create(OilFoxBindingConstants.THING_TYPE_BRIDGE, id).build();
+        OilFoxDeviceStore store = new OilFoxDeviceStore();
+        JsonObject device = new JsonObject();
+        device.addProperty("hwid", hwid);
+        device.addProperty(OilFoxBindingConstants.OILFOX_FILL_LEVEL_PERCENT, 50);
+        device.addProperty(OilFoxBindingConstants.OILFOX_VALIDATION_ERROR, "LINE\rBREAK");
+        store.update(device);
+        OilFoxBridgeHandler handler = mock(OilFoxBridgeHandler.class);
+        when(handler.getThing()).thenReturn(bridge);
+        when(handler.getBridgeConfiguration()).thenReturn(config);
+        when(handler.getDeviceStore()).thenReturn(store);
+        bridge.setHandler(handler);
+        return bridge;
+    }
+
+    private void get(@Nullable String authorization, @Nullable String format) throws IOException {
+        when(request.getHeader("Authorization")).thenReturn(authorization);
+        when(request.getParameter("format")).thenReturn(format);
+        new OilFoxFleetServlet(thingRegistry).doGet(request, response);
+    }
+
+    @Test
+    public void disabledWithoutFleetToken() throws IOException {
+        get("Bearer ", null);
+
+        verify(response).sendError(eq(HttpServletResponse.SC_NOT_FOUND), anyString());
+        assertEquals("", output.toString());
+    }
+
+    @Test
+    public void rejectsMissingOrWrongToken() throws IOException {
+        first.fleetToken = "first-secret";
+        get(null, null);
+        get("Bearer wrong-secret", null);
+        get("first-secret", null); // not a bearer token
+
+        verify(response, times(3)).sendError(eq(HttpServletResponse.SC_UNAUTHORIZED), anyString());
+        assertEquals("", output.toString());
+    }
+
+    @Test
+    public void servesOnlyAccountsOfToken() throws IOException {
+        first.fleetToken = "first-secret";
+        second.fleetToken = "second-secret";
+        get("Bearer first-secret", null);
+
+        verify(response, never()).sendError(anyInt(), anyString());
+        assertTrue(output.toString().contains("FIRST0001"));
+        assertFalse(output.toString().contains("SECOND0001"));
+    }
+
+    @Test
+    public void quotesLineBreaksInCSV() throws IOException {
+        first.fleetToken = "first-secret";
+        get("Bearer first-secret", "csv");
+
+        String[] lines = output.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].endsWith(",\"LINE\rBREAK\""), lines[1]);
+    }
+}